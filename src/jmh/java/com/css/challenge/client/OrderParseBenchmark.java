@@ -0,0 +1,48 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** OrderParseBenchmark measures parsing problem payloads of increasing size. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderParseBenchmark {
+  @Param({"48", "10000", "100000"})
+  int orders;
+
+  private String json;
+
+  @Setup
+  public void setUp() throws Exception {
+    Random random = new Random(42);
+    String[] temps = {"hot", "cold", "room"};
+    List<Order> problem = new ArrayList<>(orders);
+    for (int i = 0; i < orders; i++) {
+      problem.add(
+          new Order(
+              Long.toString(random.nextLong() & Long.MAX_VALUE, 36),
+              "Item " + i,
+              temps[random.nextInt(temps.length)],
+              30 + random.nextInt(270)));
+    }
+    json = new ObjectMapper().writeValueAsString(problem);
+  }
+
+  @Benchmark
+  public List<Order> parse() throws Exception {
+    return Order.parse(json);
+  }
+}
@@ -0,0 +1,214 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Steady-state benchmarks of the KitchenManager placement and pickup paths. Each thread gets its own kitchen
+    (KitchenManager is not thread-safe), so -Pjmh.threads scales independent kitchens across cores. Every
+    operation leaves the kitchen at the occupancy it started with, so all iterations measure the same path;
+    in a saturated kitchen that takes a refill, since a placement there discards an order whose slot the
+    pickup then frees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KitchenManagerBenchmark {
+    private static final int ORDER_POOL = 1 << 16;
+    private static final int BURST = 16;
+
+    /*
+        Action log that only remembers the last moved order, so benchmarks can find and undo their moves.
+     */
+    static final class LastMoveLog implements ActionLog {
+        String lastMoved;
+        int size;
+
+        @Override
+        public void append(long timestamp, String id, ActionType action) {
+            size++;
+            if (action == ActionType.MOVE) lastMoved = id;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void forEach(Visitor visitor) {
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class KitchenState {
+        @Param({"6", "64"})
+        int heaterCapacity;
+
+        @Param({"12", "1024"})
+        int shelfCapacity;
+
+        final LastMoveLog log = new LastMoveLog();
+        KitchenManager kitchen;
+        Order[] hot;
+        Order[] cold;
+        Order[] room;
+        int next;
+
+        void newKitchen() {
+            hot = orders("hot");
+            cold = orders("cold");
+            room = orders("room");
+            kitchen = new KitchenManager(log, Clock.systemUTC(), heaterCapacity, heaterCapacity, shelfCapacity);
+        }
+
+        void fill(int heaterFill, int shelfFill) {
+            for (int i = 0; i < heaterFill; i++) {
+                kitchen.placeOrder(new Order("fill-hot-" + i, "Soup", "hot", 300));
+                kitchen.placeOrder(new Order("fill-cold-" + i, "Ice", "cold", 300));
+            }
+            for (int i = 0; i < shelfFill; i++) {
+                kitchen.placeOrder(next(room));
+            }
+        }
+
+        Order next(Order[] pool) {
+            return pool[next++ & (ORDER_POOL - 1)];
+        }
+    }
+
+    public static class OccupancyState extends KitchenState {
+        /*
+            empty: nothing stored; partial: every storage half full; saturated: every storage full.
+         */
+        @Param({"empty", "partial", "saturated"})
+        String occupancy;
+
+        @Setup
+        public void setUp() {
+            newKitchen();
+            switch (occupancy) {
+                case "empty" -> fill(0, 0);
+                case "partial" -> fill(heaterCapacity / 2, shelfCapacity / 2);
+                default -> fill(heaterCapacity, shelfCapacity);
+            }
+        }
+
+        /*
+            Puts room orders back into the slots that discards freed, so a saturated kitchen stays saturated.
+         */
+        void refill() {
+            if (!occupancy.equals("saturated")) return;
+            for (Order order = next(room); !kitchen.wouldDiscard(order); order = next(room)) {
+                kitchen.placeOrder(order);
+            }
+        }
+    }
+
+    public static class DiscardState extends KitchenState {
+        @Setup
+        public void setUp() {
+            newKitchen();
+            fill(heaterCapacity, shelfCapacity);
+        }
+    }
+
+    public static class MoveState extends KitchenState {
+        String heaterResident;
+        String coolerResident;
+
+        @Setup
+        public void setUp() {
+            newKitchen();
+            fill(heaterCapacity, 0);
+            for (int i = 0; i < shelfCapacity; i++) {
+                kitchen.placeOrder(next(i % 2 == 0 ? hot : cold));
+            }
+            heaterResident = "fill-hot-0";
+            coolerResident = "fill-cold-0";
+        }
+    }
+
+    /*
+        Hot order placed and picked up again: heater path unless the heater is full, then shelf or discard.
+     */
+    @Benchmark
+    public boolean placeAndPickup(OccupancyState state) {
+        Order order = state.next(state.hot);
+        state.kitchen.placeOrder(order);
+        boolean found = state.kitchen.pickupOrder(order.getId());
+        state.refill();
+        return found;
+    }
+
+    /*
+        placeAndPickup for a burst of hot orders through the batch entry points, per order.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public boolean[] placeAndPickupBurst(OccupancyState state) {
+        List<Order> burst = new ArrayList<>(BURST);
+        List<String> ids = new ArrayList<>(BURST);
+        for (int i = 0; i < BURST; i++) {
+            Order order = state.next(state.hot);
+            burst.add(order);
+            ids.add(order.getId());
+        }
+        state.kitchen.placeOrders(burst);
+        boolean[] found = state.kitchen.pickupOrders(ids);
+        state.refill();
+        return found;
+    }
+
+    @Benchmark
+    public boolean pickupMiss(OccupancyState state) {
+        return state.kitchen.pickupOrder("missing");
+    }
+
+    /*
+        Step 4: every storage is full of orders that cannot move, so each placement discards a shelf order.
+     */
+    @Benchmark
+    public void placeWithDiscard(DiscardState state) {
+        state.kitchen.placeOrder(state.next(state.room));
+    }
+
+    /*
+        Step 3: frees one heater slot and places a cold order into the full kitchen, which moves a hot order off
+        the shelf; then the same with cooler and a hot order. The shelf keeps its hot/cold mix, so every
+        invocation performs exactly two moves.
+     */
+    @Benchmark
+    public String placeWithMove(MoveState state) {
+        state.kitchen.pickupOrder(state.heaterResident);
+        state.kitchen.placeOrder(state.next(state.cold));
+        state.heaterResident = state.log.lastMoved;
+
+        state.kitchen.pickupOrder(state.coolerResident);
+        state.kitchen.placeOrder(state.next(state.hot));
+        state.coolerResident = state.log.lastMoved;
+        return state.coolerResident;
+    }
+
+    private static Order[] orders(String temp) {
+        Order[] orders = new Order[ORDER_POOL];
+        for (int i = 0; i < ORDER_POOL; i++) {
+            orders[i] = new Order(temp + "-" + i, "Item" + i, temp, 300);
+        }
+        return orders;
+    }
+}
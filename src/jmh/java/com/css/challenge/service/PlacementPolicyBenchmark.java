@@ -0,0 +1,130 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Order;
+import com.css.challenge.simulation.DiscreteEventScheduler;
+import com.css.challenge.simulation.OrderGenerator;
+import com.css.challenge.simulation.ScheduledOrder;
+import com.css.challenge.simulation.Simulation;
+import com.css.challenge.simulation.VirtualClock;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Compares placement policies on what they cost and on what they save. placeWithDiscard measures one
+    decision in a full kitchen, where the deadline policy scans the shelf and the freshness policy peeks a
+    heap. overloadedRun plays a seeded, overloaded simulation per invocation and reports, next to its time per
+    order, the moves and discards the policy needed as auxiliary counters (lower is better).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlacementPolicyBenchmark {
+    private static final int ORDER_POOL = 1 << 16;
+    private static final int RUN_ORDERS = 5_000;
+
+    @State(Scope.Thread)
+    public static class FullKitchen {
+        @Param({"FRESHNESS", "DEADLINE"})
+        PlacementPolicy.Kind policy;
+
+        @Param({"12", "1024"})
+        int shelfCapacity;
+
+        KitchenManager kitchen;
+        Order[] room;
+        Duration[] delays;
+        int next;
+
+        @Setup
+        public void setUp() {
+            kitchen = new KitchenManager(new KitchenManagerBenchmark.LastMoveLog(), Clock.systemUTC(), 0, 0,
+                    shelfCapacity);
+            kitchen.setPolicy(policy.create());
+            room = new Order[ORDER_POOL];
+            delays = new Duration[ORDER_POOL];
+            SplittableRandom random = new SplittableRandom(7);
+            for (int i = 0; i < ORDER_POOL; i++) {
+                room[i] = new Order("room-" + i, "Item" + i, "room", 300);
+                delays[i] = Duration.ofMillis(4_000 + random.nextInt(4_000));
+            }
+            for (int i = 0; i < shelfCapacity; i++) {
+                placeNext();
+            }
+        }
+
+        /*
+            Recycles the next pooled order, picking it up first if the policy kept it all this time.
+         */
+        void placeNext() {
+            int i = next++ & (ORDER_POOL - 1);
+            kitchen.pickupOrder(room[i].getId());
+            kitchen.placeOrder(room[i], delays[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Workload {
+        @Param({"FRESHNESS", "DEADLINE"})
+        PlacementPolicy.Kind policy;
+
+        /*
+            Milliseconds between orders; both rates overload the default kitchen.
+         */
+        @Param({"100", "250"})
+        int rateMillis;
+
+        List<Order> orders;
+        Simulation simulation;
+
+        @Setup
+        public void setUp() {
+            orders = new OrderGenerator(1).stream(RUN_ORDERS).map(ScheduledOrder::order).toList();
+            simulation = new Simulation(Duration.ofMillis(rateMillis), Duration.ofSeconds(4), Duration.ofSeconds(8))
+                    .seed(1)
+                    .policy(policy.create());
+        }
+    }
+
+    /*
+        Moves and discards of the latest overloaded run; runs are seeded, so every run needs the same.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcome {
+        public long moves;
+        public long discards;
+    }
+
+    @Benchmark
+    public void placeWithDiscard(FullKitchen state) {
+        state.placeNext();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RUN_ORDERS)
+    public int overloadedRun(Workload workload, Outcome outcome) throws InterruptedException {
+        ActionLog actions = workload.simulation.run(workload.orders,
+                new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH)));
+        long[] counts = new long[ActionType.values().length];
+        actions.forEach((timestamp, id, action) -> counts[action.ordinal()]++);
+        outcome.moves = counts[ActionType.MOVE.ordinal()];
+        outcome.discards = counts[ActionType.DISCARD.ordinal()];
+        return actions.size();
+    }
+}
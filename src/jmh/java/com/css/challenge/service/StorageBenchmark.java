@@ -0,0 +1,92 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    Add/remove cycles on half-full storages. The storages are shared by all benchmark threads, so
+    -Pjmh.threads measures contention on the capacity counter and maps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StorageBenchmark {
+    private static final int ORDER_POOL = 1 << 16;
+
+    @Param({"12", "1024", "65536"})
+    int capacity;
+
+    private AtomicCapacityStorage temperatureStorage;
+    private FreshnessShelfStorage shelf;
+    private OffHeapStorage offHeap;
+    private Order[] orders;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        temperatureStorage = new AtomicCapacityStorage("Heater", "hot", capacity);
+        shelf = new FreshnessShelfStorage("Shelf", "room", capacity, Clock.systemUTC());
+        offHeap = new OffHeapStorage("Heater", (byte) 0, capacity, Clock.systemUTC());
+        orders = new Order[ORDER_POOL];
+        for (int i = 0; i < ORDER_POOL; i++) {
+            orders[i] = new Order("o" + i, "Item" + i, i % 2 == 0 ? "hot" : "room", 1 + i % 300, i);
+        }
+        for (int i = 0; i < capacity / 2; i++) {
+            Order resident =
+                    new Order("resident" + i, "Item", i % 2 == 0 ? "hot" : "room", 1 + i % 300, ORDER_POOL + i);
+            temperatureStorage.addOrder(resident);
+            shelf.addOrder(resident);
+            offHeap.addOrder(resident);
+        }
+    }
+
+    @Benchmark
+    public boolean temperatureStorageAddRemove() {
+        Order order = orders[next.getAndIncrement() & (ORDER_POOL - 1)];
+        return temperatureStorage.addOrder(order) & temperatureStorage.removeOrderById(order.getId());
+    }
+
+    @Benchmark
+    public boolean temperatureStorageIsFull() {
+        return temperatureStorage.isFull();
+    }
+
+    @Benchmark
+    public boolean offHeapAddRemove() {
+        Order order = orders[next.getAndIncrement() & (ORDER_POOL - 1)];
+        return offHeap.addOrder(order) & offHeap.removeOrder(order);
+    }
+
+    @Benchmark
+    public long offHeapScan() {
+        long freshness = 0;
+        synchronized (offHeap) {
+            for (OffHeapStorage.Cursor cursor = offHeap.cursor(); cursor.next(); ) {
+                freshness += cursor.freshness();
+            }
+        }
+        return freshness;
+    }
+
+    @Benchmark
+    public boolean shelfAddRemove() {
+        Order order = orders[next.getAndIncrement() & (ORDER_POOL - 1)];
+        return shelf.addOrder(order) & shelf.removeOrderById(order.getId());
+    }
+
+    @Benchmark
+    public Order shelfStalestOrder() {
+        return shelf.getStalestOrder().orElse(null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.css.challenge.simulation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SchedulerBenchmark compares the thread-pool scheduler with the timing wheel. schedule measures
+ * inserting a pickup-like event while many others are pending (run with -Pjmh.threads for
+ * contention); scheduleAndFire measures pushing a burst of near-term events through to completion.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SchedulerBenchmark {
+  private static final int BURST = 1_000;
+  private static final Runnable NOOP = () -> {};
+
+  public abstract static class Schedulers {
+    @Param({"executor", "wheel"})
+    String scheduler;
+
+    ScheduledThreadPoolExecutor executor;
+    EventScheduler events;
+
+    EventScheduler newScheduler() {
+      if (scheduler.equals("wheel")) {
+        return new TimingWheelEventScheduler(Duration.ofMillis(1), Clock.systemUTC());
+      }
+      executor = new ScheduledThreadPoolExecutor(4);
+      return new ExecutorEventScheduler(executor, Clock.systemUTC());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+      events.close();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Pending extends Schedulers {
+    @Param({"1000", "100000"})
+    int pending;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      events = newScheduler();
+      for (int i = 0; i < pending; i++) {
+        events.schedule(Duration.ofMinutes(30).plusMillis(i), NOOP);
+      }
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Idle extends Schedulers {
+    @Setup(Level.Iteration)
+    public void setUp() {
+      events = newScheduler();
+    }
+  }
+
+  @Benchmark
+  public void schedule(Pending state) {
+    state.events.schedule(Duration.ofSeconds(4 + ThreadLocalRandom.current().nextInt(5)), NOOP);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST)
+  public void scheduleAndFire(Idle state) throws InterruptedException {
+    for (int i = 0; i < BURST; i++) {
+      state.events.schedule(Duration.ofNanos(i * 1_000L), NOOP);
+    }
+    state.events.drain();
+  }
+}
@@ -0,0 +1,78 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SimulationBenchmark measures the offline tooling. validate checks a log of half a million actions,
+ * each order picked up as soon as it is placed; virtualRun plays a problem at the server's default
+ * pace under a virtual clock, which takes minutes of simulated time but should finish in well under
+ * a second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SimulationBenchmark {
+  private static final int VALIDATED_ORDERS = 250_000;
+  private static final int SIMULATED_ORDERS = 48;
+
+  @State(Scope.Benchmark)
+  public static class Logs {
+    List<Order> orders;
+    ActionLog actions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      orders = new OrderGenerator(3).stream(VALIDATED_ORDERS).map(ScheduledOrder::order).toList();
+      List<Action> log = new ArrayList<>(orders.size() * 2);
+      for (int i = 0; i < orders.size(); i++) {
+        log.add(new Action(i * 10L, orders.get(i).getId(), ActionType.PLACE));
+        log.add(new Action(i * 10L, orders.get(i).getId(), ActionType.PICKUP));
+      }
+      actions = ActionLog.of(log);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Problems {
+    List<Order> orders;
+    Simulation simulation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      orders = new OrderGenerator(5).stream(SIMULATED_ORDERS).map(ScheduledOrder::order).toList();
+      simulation =
+          new Simulation(Duration.ofMillis(500), Duration.ofSeconds(4), Duration.ofSeconds(8)).seed(5);
+    }
+  }
+
+  /** Per action validated. */
+  @Benchmark
+  @OperationsPerInvocation(VALIDATED_ORDERS * 2)
+  public ActionValidator.Report validate(Logs state) {
+    return new ActionValidator(state.orders).validate(state.actions);
+  }
+
+  /** Per simulated run. */
+  @Benchmark
+  public ActionLog virtualRun(Problems state) throws InterruptedException {
+    return state.simulation.run(
+        state.orders, new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH)));
+  }
+}
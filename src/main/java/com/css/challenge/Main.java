@@ -1,19 +1,39 @@
 package com.css.challenge;
 
-import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.AsyncClient;
 import com.css.challenge.client.Client;
 import com.css.challenge.client.Order;
 import com.css.challenge.client.Problem;
+import com.css.challenge.metrics.KitchenMetrics;
+import com.css.challenge.metrics.MetricsHttpServer;
+import com.css.challenge.service.AdmissionQueue;
+import com.css.challenge.service.DecisionTrace;
+import com.css.challenge.service.PlacementPolicy;
+import com.css.challenge.simulation.ActionValidator;
+import com.css.challenge.simulation.BatchRunner;
+import com.css.challenge.simulation.ClockMode;
+import com.css.challenge.simulation.Distribution;
+import com.css.challenge.simulation.EventScheduler;
+import com.css.challenge.simulation.OrderFeed;
+import com.css.challenge.simulation.OrderGenerator;
+import com.css.challenge.simulation.Simulation;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
 
-import com.css.challenge.service.KitchenManager;
 import org.apache.log4j.Level;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,7 +59,9 @@ public class Main implements Runnable {
   @Option(names = "--name", description = "Problem name. Leave blank (optional)")
   String name = "";
 
-  @Option(names = "--seed", description = "Problem seed (random if zero)")
+  @Option(
+      names = "--seed",
+      description = "Problem seed, also seeding pickup delays and generated orders (random if zero)")
   long seed = 0;
 
   @Option(names = "--rate", description = "Inverse order rate")
@@ -51,68 +73,393 @@ public class Main implements Runnable {
   @Option(names = "--max", description = "Maximum pickup time")
   Duration max = Duration.ofSeconds(8);
 
+  @Option(
+      names = "--clock",
+      description = "Simulation clock: real waits in wall-clock time, virtual replays instantly")
+  ClockMode clock = ClockMode.REAL;
+
+  @Option(
+      names = "--event-loop",
+      description = "Apply all kitchen commands on a single kitchen thread fed by a ring buffer")
+  boolean eventLoop = false;
+
+  @Option(
+      names = "--timing-wheel",
+      description = "Schedule real-time events on a hashed timing wheel instead of a thread pool")
+  boolean timingWheel = false;
+
+  @Option(
+      names = "--metrics-port",
+      description = "Serve metrics at http://localhost:<port>/metrics and over JMX (0 disables)")
+  int metricsPort = 0;
+
+  @Option(
+      names = "--problem-file",
+      description = "Run offline on a local problem json file, or every json file of a directory")
+  Path problemFile;
+
+  @Option(
+      names = "--out-actions",
+      description = "Write the solution json here (a directory when --problem-file is a directory)")
+  Path outActions;
+
+  @Option(
+      names = "--seeds",
+      split = ",",
+      description = "Fetch, run side by side and submit one problem per seed (comma separated)")
+  List<Long> seeds = new ArrayList<>();
+
+  @Option(
+      names = "--generate",
+      description = "Run offline on this many synthetic orders, generated from --seed (0 disables)")
+  long generate = 0;
+
+  @Option(
+      names = "--arrival",
+      description = "Arrival process of generated orders: ${COMPLETION-CANDIDATES}")
+  OrderGenerator.Arrival arrival = OrderGenerator.Arrival.CONSTANT;
+
+  @Option(names = "--burst-size", description = "Orders per burst for --arrival=bursty")
+  int burstSize = 10;
+
+  @Option(
+      names = "--batch",
+      description = "Run the problems of a --problem-file directory side by side in this JVM")
+  boolean batch = false;
+
+  @Option(
+      names = "--reap-interval",
+      description = "Discard expired orders in the background this often (0 disables)")
+  Duration reapInterval = Duration.ZERO;
+
+  @Option(names = "--reap-batch", description = "Most expired orders discarded per reap")
+  int reapBatch = 16;
+
+  @Option(
+      names = "--policy",
+      description = "How the kitchen picks orders to move or discard: ${COMPLETION-CANDIDATES}")
+  PlacementPolicy.Kind policy = PlacementPolicy.Kind.FRESHNESS;
+
+  @Option(
+      names = "--admission-capacity",
+      description = "Queue at most this many placements in front of the kitchen (0 disables)")
+  int admissionCapacity = 0;
+
+  @Option(
+      names = "--admission-overflow",
+      description = "What a full admission queue does with new orders: ${COMPLETION-CANDIDATES}")
+  AdmissionQueue.Overflow admissionOverflow = AdmissionQueue.Overflow.BLOCK;
+
+  @Option(
+      names = "--admission-batch",
+      description = "Most queued commands applied to the kitchen at once")
+  int admissionBatch = AdmissionQueue.DEFAULT_MAX_BATCH;
+
+  @Option(
+      names = "--validate",
+      description = "Check and score every run's actions locally, as the server would")
+  boolean validate = false;
+
+  @Option(
+      names = "--trace-out",
+      description =
+          "Write the binary decision trace here; needs -Dchallenge.trace=true, decode with"
+              + " com.css.challenge.service.DecisionTrace")
+  Path traceOut;
+
+  private final KitchenMetrics metrics = new KitchenMetrics();
+  private final Map<Integer, String> tracedOrders = new ConcurrentHashMap<>();
+
   @Override
   public void run() {
-    try {
+    try (MetricsHttpServer ignored = startMetrics()) {
+      if (problemFile != null) {
+        if (batch) {
+          runBatch(Problem.loadAll(problemFile));
+        } else {
+          runOffline();
+        }
+        return;
+      }
+      if (!seeds.isEmpty()) {
+        runOnlineBatch();
+        return;
+      }
+      if (generate > 0) {
+        runGenerated();
+        return;
+      }
+
       Client client = new Client(endpoint, auth);
-      Problem problem = client.newProblem(name, seed);
+      OrderFeed feed = new OrderFeed();
+      CompletableFuture<Problem> fetch = fetchProblem(client, feed);
+      ActionLog actions = simulate(feed);
+      Problem problem = fetched(fetch);
+      traceNames(problem.getOrders());
+      if (outActions != null) {
+        writeActions(outActions, actions);
+      }
+      validate(problem, actions);
+      try {
+        String result = client.solveProblem(problem.getTestId(), rate, min, max, actions);
+        LOGGER.info("Result: {}", result);
 
-      // ------ Simulation harness logic goes here using rate, min and max ----
+      } catch (IOException e) {
+        LOGGER.error("Solve problem failed: {}", e.getMessage());
+      }
+    } catch (IOException e) {
+      LOGGER.error("Simulation failed: {}", e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.error("Simulation interrupted");
+    } finally {
+      writeTrace();
+    }
+  }
 
-      List<Action> actions = new ArrayList<>();
-      KitchenManager manager = new KitchenManager(actions);
-      ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+  /** traceNames remembers the ids of traced orders, so the trace file can name them. */
+  private void traceNames(List<Order> orders) {
+    if (traceOut != null && DecisionTrace.ENABLED) {
+      orders.forEach(order -> tracedOrders.put(order.getHandle(), order.getId()));
+    }
+  }
 
-      List<Order> orders = problem.getOrders();
-      for (int i = 0; i < orders.size(); i++) {
-        Order order = orders.get(i);
-        long delay = rate.toMillis() * i;
+  private void writeTrace() {
+    if (traceOut == null) {
+      return;
+    }
+    if (!DecisionTrace.ENABLED) {
+      LOGGER.error("--trace-out needs tracing enabled with -Dchallenge.trace=true");
+      return;
+    }
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(traceOut))) {
+      DecisionTrace.write(out, handle -> tracedOrders.getOrDefault(handle, "#" + handle));
+      LOGGER.info("Wrote decision trace to {}", traceOut);
+    } catch (IOException e) {
+      LOGGER.error("Writing decision trace failed: {}", e.getMessage());
+    }
+  }
 
-        // Schedule order placement
-        scheduler.schedule(() -> {
-          LOGGER.info("Received: {}", order);
-          manager.placeOrder(order);
+  private MetricsHttpServer startMetrics() throws IOException {
+    if (metricsPort == 0) {
+      return null;
+    }
+    try {
+      metrics.registerMBean("challenge");
+    } catch (JMException e) {
+      LOGGER.error("JMX registration failed: {}", e.getMessage());
+    }
+    MetricsHttpServer server = new MetricsHttpServer(metricsPort, metrics);
+    LOGGER.info("Serving metrics at http://localhost:{}/metrics", server.port());
+    return server;
+  }
 
-          // Schedule pickup after a random delay between min and max
-          long pickupDelay = min.toMillis() + (long) (Math.random() * (max.toMillis() - min.toMillis()));
-          scheduler.schedule(() -> {
-            LOGGER.info("PickedUp: {}", order);
-            manager.pickupOrder(order.getId());
-          }, pickupDelay, TimeUnit.MILLISECONDS);
+  /** runOffline simulates local problem files without touching the network. */
+  private void runOffline() throws IOException, InterruptedException {
+    List<Problem> problems = Problem.loadAll(problemFile);
+    boolean directory = Files.isDirectory(problemFile);
+    if (directory && outActions != null) {
+      Files.createDirectories(outActions);
+    }
+    for (Problem problem : problems) {
+      ActionLog actions = simulate(problem);
+      if (outActions != null) {
+        writeActions(directory ? outActions.resolve(problem.getTestId() + ".json") : outActions, actions);
+      }
+      LOGGER.info(
+          "Simulated {}: {} orders, {} actions",
+          problem.getTestId(),
+          problem.getOrders().size(),
+          actions.size());
+      validate(problem, actions);
+    }
+  }
 
-        }, delay, TimeUnit.MILLISECONDS);
+  /**
+   * runBatch simulates all problems side by side, writes their actions like runOffline and returns
+   * the per-run outcomes.
+   */
+  private List<BatchRunner.Outcome> runBatch(List<Problem> problems)
+      throws IOException, InterruptedException {
+    if (clock == ClockMode.REAL && DecisionTrace.ENABLED) {
+      LOGGER.error(
+          "Real-time --batch runs cannot be traced; use --clock virtual or turn tracing off");
+      return List.of();
+    }
+    problems.forEach(problem -> traceNames(problem.getOrders()));
+    BatchRunner.Report report =
+        new BatchRunner(simulation(), clock).run(problems);
+    boolean perRun = problems.size() > 1 || (problemFile != null && Files.isDirectory(problemFile));
+    if (outActions != null && perRun) {
+      Files.createDirectories(outActions);
+    }
+    for (int i = 0; i < problems.size(); i++) {
+      BatchRunner.Outcome outcome = report.outcomes().get(i);
+      LOGGER.info("Run {}", outcome);
+      if (outcome.ok()) {
+        validate(problems.get(i), outcome.actions());
+      }
+      if (outActions != null && outcome.ok()) {
+        writeActions(
+            perRun ? outActions.resolve(outcome.testId() + ".json") : outActions,
+            outcome.actions());
       }
+    }
+    LOGGER.info("Batch: {}", report);
+    return report.outcomes();
+  }
 
-      // Shut down the scheduler after last order and pickup time
-      long totalDuration = rate.toMillis() * orders.size() + max.toMillis() + 1000;
-      scheduler.schedule(() -> {
-        scheduler.shutdown();
+  /** runOnlineBatch fetches one problem per seed, runs them side by side and submits them all. */
+  private void runOnlineBatch() throws IOException, InterruptedException {
+    try (AsyncClient client = new AsyncClient(endpoint, auth)) {
+      List<CompletableFuture<Problem>> fetches = new ArrayList<>(seeds.size());
+      for (long problemSeed : seeds) {
+        fetches.add(client.newProblem(name, problemSeed));
+      }
+      List<Problem> problems = new ArrayList<>(fetches.size());
+      for (CompletableFuture<Problem> fetch : fetches) {
         try {
-          scheduler.awaitTermination(3, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-          LOGGER.error("Scheduler termination interrupted");
+          problems.add(fetch.join());
+        } catch (CompletionException e) {
+          LOGGER.error("Fetch problem failed: {}", e.getCause().getMessage());
         }
+      }
 
-        // ----------------------------------------------------------------------
-        // Debugging to see actionsLog
-        for (Action a : actions) {
-          LOGGER.info("Action: {} | OrderID: {} | Time: {}", a.getAction(), a.getId(), a.getTimestamp());
+      List<CompletableFuture<Void>> submits = new ArrayList<>(problems.size());
+      for (BatchRunner.Outcome outcome : runBatch(problems)) {
+        if (outcome.ok()) {
+          submits.add(
+              client
+                  .solveProblem(outcome.testId(), rate, min, max, outcome.actions())
+                  .handle(
+                      (result, error) -> {
+                        if (error != null) {
+                          LOGGER.error(
+                              "Solve problem {} failed: {}", outcome.testId(), error.getMessage());
+                        } else {
+                          LOGGER.info("Result {}: {}", outcome.testId(), result);
+                        }
+                        return null;
+                      }));
         }
-        // ----------------------------------------------------------------------
-        try {
-          String result = client.solveProblem(problem.getTestId(), rate, min, max, actions);
-          LOGGER.info("Result: {}", result);
+      }
+      CompletableFuture.allOf(submits.toArray(new CompletableFuture[0])).join();
+    }
+  }
 
-        } catch (IOException e) {
-          LOGGER.error("Solve problem failed: {}", e.getMessage());
-        }
-      }, totalDuration, TimeUnit.MILLISECONDS);
-    } catch (IOException e) {
-      LOGGER.error("Simulation failed: {}", e.getMessage());
+  /**
+   * fetchProblem downloads a new problem on a background thread, handing each order to feed as soon
+   * as it has been parsed and closing the feed when the download ends, however it ends.
+   */
+  private CompletableFuture<Problem> fetchProblem(Client client, OrderFeed feed) {
+    CompletableFuture<Problem> fetch = new CompletableFuture<>();
+    Thread.ofVirtual()
+        .name("problem-fetch")
+        .start(
+            () -> {
+              try (feed) {
+                fetch.complete(client.newProblem(name, seed, feed));
+              } catch (IOException | RuntimeException e) {
+                fetch.completeExceptionally(e);
+              }
+            });
+    return fetch;
+  }
+
+  private static Problem fetched(CompletableFuture<Problem> fetch) throws IOException {
+    try {
+      return fetch.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof IOException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private ActionLog simulate(Problem problem) throws InterruptedException {
+    traceNames(problem.getOrders());
+    return simulate(problem.getOrders().iterator());
+  }
+
+  /** simulate runs the orders, which may still be arriving, through a fresh kitchen. */
+  private ActionLog simulate(Iterator<Order> orders) throws InterruptedException {
+    // ------ Simulation harness logic goes here using rate, min and max ----
+
+    ActionLog actions;
+    try (EventScheduler scheduler = clock.newScheduler(4, timingWheel)) {
+      actions = simulation().run(orders, scheduler);
+    }
+
+    // ----------------------------------------------------------------------
+    // Per-decision detail is in the decision trace (--trace-out), not logged per action
+    // ----------------------------------------------------------------------
+    return actions;
+  }
+
+  /**
+   * runGenerated streams synthetic orders through one kitchen. Arrivals follow --arrival at --rate,
+   * pickups are uniform in [--min, --max), and the same --seed always gives the same run.
+   */
+  private void runGenerated() throws IOException, InterruptedException {
+    long generatorSeed = seed != 0 ? seed : new Random().nextLong();
+    OrderGenerator generator =
+        new OrderGenerator(generatorSeed)
+            .arrivals(arrival, rate)
+            .burstSize(burstSize)
+            .pickupDelay(Distribution.uniform(min.toNanos() / 1e9, max.toNanos() / 1e9));
+
+    long began = System.nanoTime();
+    ActionLog actions;
+    try (EventScheduler scheduler = clock.newScheduler(4, timingWheel)) {
+      actions = simulation().run(generator.stream(generate), scheduler);
+    }
+    LOGGER.info(
+        "Simulated {} generated orders (seed {}): {} actions in {}ms",
+        generate,
+        generatorSeed,
+        actions.size(),
+        (System.nanoTime() - began) / 1_000_000);
+    if (outActions != null) {
+      writeActions(outActions, actions);
+    }
+  }
+
+  /** validate logs the local validation report of a run when --validate is set. */
+  private void validate(Problem problem, ActionLog actions) {
+    if (validate) {
+      ActionValidator.Report report =
+          new ActionValidator(problem.getOrders()).pickupWindow(min, max).validate(actions);
+      LOGGER.info("Validated {}: {}", problem.getTestId(), report);
+    }
+  }
+
+  private Simulation simulation() {
+    Simulation simulation =
+        new Simulation(rate, min, max)
+            .singleWriter(eventLoop)
+            .metrics(metrics)
+            .policy(policy.create());
+    if (reapInterval.isPositive()) {
+      simulation.reaper(reapInterval, reapBatch);
+    }
+    if (admissionCapacity > 0) {
+      simulation.admission(admissionCapacity, admissionOverflow, admissionBatch);
+    }
+    return seed != 0 ? simulation.seed(seed) : simulation;
+  }
+
+  private void writeActions(Path file, ActionLog actions) throws IOException {
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (OutputStream out = Files.newOutputStream(file)) {
+      Client.writeSolution(out, rate, min, max, actions);
     }
   }
 
   public static void main(String[] args) {
-    new CommandLine(new Main()).execute(args);
+    new CommandLine(new Main()).setCaseInsensitiveEnumValuesAllowed(true).execute(args);
   }
 }
@@ -17,6 +17,12 @@ public class Action {
         this.action = action;
     }
 
+    public Action(long timestamp, String id, ActionType action) {
+        this.timestamp = timestamp;
+        this.id = id;
+        this.action = action;
+    }
+
     public long getTimestamp() {
         return timestamp;
     }
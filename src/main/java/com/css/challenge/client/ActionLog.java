@@ -0,0 +1,92 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/** ActionLog is an append-only record of kitchen actions, in the order they were appended. */
+public interface ActionLog {
+  /** append records an action. The timestamp is a unix timestamp in microseconds. */
+  void append(long timestamp, String id, ActionType action);
+
+  /**
+   * appendAll records the first count actions of a batch that all happened at one timestamp, in
+   * order, as count appends would. Logs override it to claim space once per batch.
+   */
+  default void appendAll(long timestamp, String[] ids, ActionType[] actions, int count) {
+    for (int i = 0; i < count; i++) {
+      append(timestamp, ids[i], actions[i]);
+    }
+  }
+
+  int size();
+
+  /** forEach visits every action appended so far, in append order. */
+  void forEach(Visitor visitor);
+
+  /** Visitor receives the fields of one action without an Action object being materialized. */
+  @FunctionalInterface
+  interface Visitor {
+    void visit(long timestamp, String id, ActionType action);
+  }
+
+  /** writeJson streams the log as the json array of actions the challenge server expects. */
+  default void writeJson(JsonGenerator generator) throws IOException {
+    generator.writeStartArray();
+    IOException[] failure = new IOException[1];
+    forEach(
+        (timestamp, id, action) -> {
+          if (failure[0] != null) {
+            return;
+          }
+          try {
+            generator.writeStartObject();
+            generator.writeNumberField("timestamp", timestamp);
+            generator.writeStringField("id", id);
+            generator.writeStringField("action", action.toLower());
+            generator.writeEndObject();
+          } catch (IOException e) {
+            failure[0] = e;
+          }
+        });
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+    generator.writeEndArray();
+  }
+
+  /** toList materializes the log as Action objects. */
+  default List<Action> toList() {
+    List<Action> actions = new ArrayList<>(size());
+    forEach((timestamp, id, action) -> actions.add(new Action(timestamp, id, action)));
+    return actions;
+  }
+
+  /** of adapts a plain list of actions, which is not safe for concurrent appends. */
+  static ActionLog of(List<Action> actions) {
+    return new ActionLog() {
+      @Override
+      public void append(long timestamp, String id, ActionType action) {
+        actions.add(new Action(timestamp, id, action));
+      }
+
+      @Override
+      public int size() {
+        return actions.size();
+      }
+
+      @Override
+      public void forEach(Visitor visitor) {
+        for (Action a : actions) {
+          visitor.visit(a.getTimestamp(), a.getId(), a.getAction());
+        }
+      }
+
+      @Override
+      public List<Action> toList() {
+        return new ArrayList<>(actions);
+      }
+    };
+  }
+}
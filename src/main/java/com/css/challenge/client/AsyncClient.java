@@ -0,0 +1,266 @@
+package com.css.challenge.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AsyncClient is a non-blocking variant of {@link Client} on the JDK HttpClient. One instance
+ * keeps a single connection pool (HTTP/2 where the server supports it), so any number of problems
+ * can be fetched and submitted concurrently over reused connections. Responses may be gzipped,
+ * request bodies optionally are (off by default, as not every server accepts them), and every
+ * request has a timeout. Failed fetches are retried a bounded number of times with exponential
+ * backoff; a submission is only retried when it never reached the server, since submitting twice
+ * is not harmless.
+ */
+public class AsyncClient implements AutoCloseable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AsyncClient.class);
+
+  public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+  public static final int DEFAULT_RETRIES = 3;
+  public static final Duration DEFAULT_BACKOFF = Duration.ofMillis(200);
+
+  private final String endpoint;
+  private final String auth;
+  private final Duration timeout;
+  private final int retries;
+  private final Duration backoff;
+  private final boolean gzipRequests;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final HttpClient client;
+
+  public AsyncClient(String endpoint, String auth) {
+    this(endpoint, auth, DEFAULT_TIMEOUT, DEFAULT_RETRIES, DEFAULT_BACKOFF, false);
+  }
+
+  /**
+   * The timeout bounds both connecting and each individual request; retries is the number of
+   * attempts after the first, each waiting backoff * 2^attempt before it starts.
+   */
+  public AsyncClient(
+      String endpoint,
+      String auth,
+      Duration timeout,
+      int retries,
+      Duration backoff,
+      boolean gzipRequests) {
+    if (retries < 0) {
+      throw new IllegalArgumentException("retries must not be negative: " + retries);
+    }
+    this.endpoint = endpoint;
+    this.auth = auth;
+    this.timeout = timeout;
+    this.retries = retries;
+    this.backoff = backoff;
+    this.gzipRequests = gzipRequests;
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(timeout)
+            .executor(executor)
+            .build();
+  }
+
+  /** newProblem fetches a new test problem from the server. */
+  public CompletableFuture<Problem> newProblem(String name, long seed) {
+    long problemSeed = seed == 0 ? new Random().nextLong() : seed;
+    URI uri =
+        URI.create(
+            endpoint
+                + "/interview/challenge/new?auth="
+                + auth
+                + "&name="
+                + name
+                + "&seed="
+                + problemSeed);
+    HttpRequest request =
+        HttpRequest.newBuilder(uri).timeout(timeout).header("Accept-Encoding", "gzip").GET().build();
+
+    return withRetries(
+        true,
+        () ->
+            client
+                .sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApplyAsync(
+                    response -> {
+                      try (InputStream body = body(uri, response)) {
+                        String id = response.headers().firstValue("x-test-id").orElse(null);
+                        LOGGER.info("Fetched new test problem, id={}: {}", id, uri);
+                        return new Problem(id, Order.parse(body));
+                      } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                      }
+                    },
+                    executor));
+  }
+
+  /**
+   * solveProblem submits an action log as the solution to a test problem and completes with the
+   * test result. The body is encoded once, gzipped if enabled, and replayed if the request has to
+   * be retried because it could not connect.
+   */
+  public CompletableFuture<String> solveProblem(
+      String testId, Duration rate, Duration min, Duration max, ActionLog actions) {
+    byte[] body;
+    try {
+      body = encodeSolution(rate, min, max, actions);
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    URI uri = URI.create(endpoint + "/interview/challenge/solve?auth=" + auth);
+    HttpRequest.Builder builder =
+        HttpRequest.newBuilder(uri)
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .header("Accept-Encoding", "gzip")
+            .header("x-test-id", testId);
+    if (gzipRequests) {
+      builder.header("Content-Encoding", "gzip");
+    }
+    HttpRequest request = builder.POST(HttpRequest.BodyPublishers.ofByteArray(body)).build();
+
+    return withRetries(
+        false,
+        () ->
+            client
+                .sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApplyAsync(
+                    response -> {
+                      try (InputStream in = body(uri, response)) {
+                        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                      } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                      }
+                    },
+                    executor));
+  }
+
+  private byte[] encodeSolution(Duration rate, Duration min, Duration max, ActionLog actions)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    if (gzipRequests) {
+      try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+        Client.writeSolution(gzip, rate, min, max, actions);
+      }
+    } else {
+      Client.writeSolution(bytes, rate, min, max, actions);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * withRetries runs attempt until it succeeds, fails in a way that is not worth retrying, or runs
+   * out of retries. Idempotent says whether a request the server may already have processed can be
+   * sent again.
+   */
+  private <T> CompletableFuture<T> withRetries(
+      boolean idempotent, Supplier<CompletableFuture<T>> attempt) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    run(idempotent, attempt, 0, result);
+    return result;
+  }
+
+  private <T> void run(
+      boolean idempotent,
+      Supplier<CompletableFuture<T>> attempt,
+      int attempts,
+      CompletableFuture<T> result) {
+    attempt
+        .get()
+        .whenComplete(
+            (value, error) -> {
+              if (error == null) {
+                result.complete(value);
+                return;
+              }
+              Throwable cause = unwrap(error);
+              if (attempts >= retries || !retryable(cause, idempotent)) {
+                result.completeExceptionally(cause);
+                return;
+              }
+              long delay = backoff.toMillis() << attempts;
+              LOGGER.info("Request failed ({}), retrying in {}ms", cause.getMessage(), delay);
+              CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor)
+                  .execute(() -> run(idempotent, attempt, attempts + 1, result));
+            });
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    while ((error instanceof CompletionException || error instanceof UncheckedIOException)
+        && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error;
+  }
+
+  /**
+   * A request that could not connect never reached the server, so it is always worth another
+   * attempt. After other transport failures, timeouts, throttling and server errors the server may
+   * have acted on it, so only idempotent requests are retried.
+   */
+  private static boolean retryable(Throwable error, boolean idempotent) {
+    if (error instanceof ConnectException || error instanceof HttpConnectTimeoutException) {
+      return true;
+    }
+    if (!idempotent) {
+      return false;
+    }
+    if (error instanceof StatusException status) {
+      return status.status == 429 || status.status >= 500;
+    }
+    return error instanceof IOException;
+  }
+
+  /** body returns the decoded response body, or fails with the status of a non-2xx response. */
+  private static InputStream body(URI uri, HttpResponse<InputStream> response)
+      throws IOException {
+    if (response.statusCode() / 100 != 2) {
+      response.body().close();
+      throw new StatusException(uri, response.statusCode());
+    }
+    boolean gzipped =
+        response
+            .headers()
+            .firstValue("Content-Encoding")
+            .filter("gzip"::equalsIgnoreCase)
+            .isPresent();
+    return gzipped ? new GZIPInputStream(response.body()) : response.body();
+  }
+
+  @Override
+  public void close() {
+    client.close();
+    executor.shutdown();
+  }
+
+  /** StatusException reports a non-2xx response. */
+  static class StatusException extends IOException {
+    final int status;
+
+    StatusException(URI uri, int status) {
+      super(uri + ": " + status);
+      this.status = status;
+    }
+  }
+}
@@ -1,31 +1,38 @@
 package com.css.challenge.client;
 
-import static simplehttp.HeaderList.headers;
-import static simplehttp.HeaderPair.header;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import simplehttp.*;
 
-/** Client is a client for fetching and solving challenge test problems. */
+/**
+ * Client is a client for fetching and solving challenge test problems. Request and response bodies
+ * are streamed: orders are parsed as they download and solutions are generated straight into the
+ * request, so no full copy of either payload is held in memory.
+ */
 public class Client {
   private static final Logger LOGGER = LoggerFactory.getLogger(Client.class);
+  private static final int CHUNK_SIZE = 64 * 1024;
 
   private final String endpoint;
   private final String auth;
-  private final HttpClient client;
 
   public Client(String endpoint, String auth) {
     this.endpoint = endpoint;
     this.auth = auth;
-    this.client = HttpClients.anApacheClient();
   }
 
   /**
@@ -33,6 +40,14 @@ public class Client {
    * convenience.
    */
   public Problem newProblem(String name, long seed) throws IOException {
+    return newProblem(name, seed, order -> {});
+  }
+
+  /**
+   * newProblem fetches a new test problem, handing each order to onOrder as soon as it has been
+   * parsed from the response, before the rest of the download has finished.
+   */
+  public Problem newProblem(String name, long seed, Consumer<Order> onOrder) throws IOException {
     if (seed == 0) {
       seed = new Random().nextLong();
     }
@@ -40,14 +55,25 @@ public class Client {
     URL url =
         new URL(
             endpoint + "/interview/challenge/new?auth=" + auth + "&name=" + name + "&seed=" + seed);
-    HttpResponse response = client.get(url);
-    if (!response.ok()) {
-      throw new IOException(url + ": " + response.getStatusMessage());
-    }
-    String id = response.getHeaders().get("x-test-id").value();
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    try {
+      checkOk(url, connection);
+      String id = connection.getHeaderField("x-test-id");
 
-    LOGGER.info("Fetched new test problem, id={}: {}", id, url);
-    return new Problem(id, Order.parse(response.getContent().asString()));
+      LOGGER.info("Fetched new test problem, id={}: {}", id, url);
+      List<Order> orders = new ArrayList<>();
+      try (InputStream in = connection.getInputStream()) {
+        Order.parse(
+            in,
+            order -> {
+              orders.add(order);
+              onOrder.accept(order);
+            });
+      }
+      return new Problem(id, orders);
+    } finally {
+      connection.disconnect();
+    }
   }
 
   private static class Options {
@@ -62,39 +88,121 @@ public class Client {
     }
   }
 
-  private static class Solution {
-    public Options options;
-    public List<Action> actions;
+  /**
+   * solveProblem submits a sequence of actions and parameters as a solution to a test problem.
+   * Returns test result.
+   */
+  public String solveProblem(
+      String testId, Duration rate, Duration min, Duration max, List<Action> actions)
+      throws IOException {
+    return solveProblem(testId, rate, min, max, ActionLog.of(actions));
+  }
+
+  /**
+   * solveProblem submits an action log without materializing it as Action objects: the log is
+   * streamed straight into the json request body.
+   */
+  public String solveProblem(
+      String testId, Duration rate, Duration min, Duration max, ActionLog actions)
+      throws IOException {
+    URL url = new URL(endpoint + "/interview/challenge/solve?auth=" + auth);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    try {
+      connection.setRequestMethod("POST");
+      connection.setRequestProperty("Content-Type", "application/json");
+      connection.setRequestProperty("x-test-id", testId);
+      connection.setDoOutput(true);
+      connection.setChunkedStreamingMode(CHUNK_SIZE);
+      try (OutputStream out = connection.getOutputStream()) {
+        writeSolution(out, rate, min, max, actions);
+      }
 
-    Solution(Options options, List<Action> actions) {
-      this.options = options;
-      this.actions = actions;
+      checkOk(url, connection);
+      try (InputStream in = connection.getInputStream()) {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      }
+    } finally {
+      connection.disconnect();
     }
+  }
 
-    String encode() throws IOException {
-      return new ObjectMapper().writeValueAsString(this);
+  private static void checkOk(URL url, HttpURLConnection connection) throws IOException {
+    int status = connection.getResponseCode();
+    if (status / 100 != 2) {
+      throw new IOException(url + ": " + status + " " + connection.getResponseMessage());
     }
   }
 
   /**
-   * solveProblem submits a sequence of actions and parameters as a solution to a test problem.
-   * Returns test result.
+   * writeSolution writes the same json document solveProblem submits, e.g. to keep the result of an
+   * offline run on disk. The stream is flushed but left open.
    */
-  public String solveProblem(
-      String testId, Duration rate, Duration min, Duration max, List<Action> actions)
+  public static void writeSolution(
+      OutputStream out, Duration rate, Duration min, Duration max, ActionLog actions)
       throws IOException {
-    Solution solution = new Solution(new Options(rate, min, max), actions);
+    try (JsonGenerator generator = Json.generator(out)) {
+      writeSolution(generator, rate, min, max, actions);
+    }
+  }
 
-    URL url = new URL(endpoint + "/interview/challenge/solve?auth=" + auth);
-    HttpResponse response =
-        client.post(
-            url,
-            new UnencodedStringMessage(
-                solution.encode(),
-                headers(header("Content-Type", "application/json"), header("x-test-id", testId))));
-    if (!response.ok()) {
-      throw new IOException(url + ": " + response.getStatusMessage());
+  /**
+   * readActions streams the actions of a solution document written by writeSolution, or of a bare
+   * json action array, to the visitor in file order. Actions are decoded token by token, so no
+   * Action objects are created and the file is never held in memory.
+   */
+  public static void readActions(InputStream in, ActionLog.Visitor visitor) throws IOException {
+    try (JsonParser parser = Json.FACTORY.createParser(in)) {
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_OBJECT) {
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+          if (parser.getCurrentName().equals("actions")) {
+            token = parser.nextToken();
+            break;
+          }
+          parser.nextToken();
+          parser.skipChildren();
+        }
+      }
+      if (token != JsonToken.START_ARRAY) {
+        throw new IOException("Expected an array of actions at " + parser.getCurrentLocation());
+      }
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        long timestamp = 0;
+        String id = null;
+        ActionType action = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String field = parser.getCurrentName();
+          parser.nextToken();
+          switch (field) {
+            case "timestamp" -> timestamp = parser.getLongValue();
+            case "id" -> id = parser.getText();
+            case "action" -> action = ActionType.valueOf(parser.getText().toUpperCase());
+            default -> parser.skipChildren();
+          }
+        }
+        if (id == null || action == null) {
+          throw new IOException("Incomplete action at " + parser.getCurrentLocation());
+        }
+        visitor.visit(timestamp, id, action);
+      }
+      if (parser.currentToken() != JsonToken.END_ARRAY) {
+        throw new IOException("Expected an action object at " + parser.getCurrentLocation());
+      }
     }
-    return response.getContent().asString();
+  }
+
+  private static void writeSolution(
+      JsonGenerator generator, Duration rate, Duration min, Duration max, ActionLog actions)
+      throws IOException {
+    Options options = new Options(rate, min, max);
+    generator.writeStartObject();
+    generator.writeObjectFieldStart("options");
+    generator.writeNumberField("rate", options.rate);
+    generator.writeNumberField("min", options.min);
+    generator.writeNumberField("max", options.max);
+    generator.writeEndObject();
+    generator.writeFieldName("actions");
+    actions.writeJson(generator);
+    generator.writeEndObject();
   }
 }
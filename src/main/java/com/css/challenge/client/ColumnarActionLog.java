@@ -0,0 +1,192 @@
+package com.css.challenge.client;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ColumnarActionLog stores actions in chunked primitive columns: timestamps, interned order handles
+ * and action type ordinals. Appends are lock-free and safe from any number of threads, and
+ * allocate nothing once the order id has been seen (only a chunk allocation every CHUNK_SIZE
+ * actions). The log is read back through {@link #forEach} or streamed as json or binary.
+ */
+public class ColumnarActionLog implements ActionLog {
+  private static final int CHUNK_SHIFT = 14;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int MAX_CHUNKS = 1 << 16;
+  private static final int BINARY_MAGIC = 0x434b414c; // "CKAL"
+  private static final int BINARY_VERSION = 1;
+  private static final VarHandle TYPES = MethodHandles.arrayElementVarHandle(byte[].class);
+  private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+  private final AtomicReferenceArray<Chunk> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+  private final AtomicLong next = new AtomicLong();
+  private final Map<String, Integer> handles = new ConcurrentHashMap<>();
+  private final AtomicReferenceArray<String[]> idChunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+  private final AtomicInteger nextHandle = new AtomicInteger();
+
+  private static final class Chunk {
+    final long[] timestamps = new long[CHUNK_SIZE];
+    final int[] handles = new int[CHUNK_SIZE];
+    final byte[] types = new byte[CHUNK_SIZE]; // action ordinal + 1; zero until published
+  }
+
+  @Override
+  public void append(long timestamp, String id, ActionType action) {
+    long index = next.getAndIncrement();
+    Chunk chunk = chunk(index);
+    int offset = (int) (index & CHUNK_MASK);
+    chunk.timestamps[offset] = timestamp;
+    chunk.handles[offset] = handle(id);
+    TYPES.setRelease(chunk.types, offset, (byte) (action.ordinal() + 1));
+  }
+
+  /** appendAll claims the batch's slots with a single atomic add, so a batch stays contiguous. */
+  @Override
+  public void appendAll(long timestamp, String[] ids, ActionType[] actions, int count) {
+    long index = next.getAndAdd(count);
+    for (int i = 0; i < count; i++, index++) {
+      Chunk chunk = chunk(index);
+      int offset = (int) (index & CHUNK_MASK);
+      chunk.timestamps[offset] = timestamp;
+      chunk.handles[offset] = handle(ids[i]);
+      TYPES.setRelease(chunk.types, offset, (byte) (actions[i].ordinal() + 1));
+    }
+  }
+
+  @Override
+  public int size() {
+    return (int) Math.min(next.get(), Integer.MAX_VALUE);
+  }
+
+  @Override
+  public void forEach(Visitor visitor) {
+    forEachRecord(
+        next.get(),
+        (timestamp, handle, type) -> visitor.visit(timestamp, id(handle), ACTION_TYPES[type]));
+  }
+
+  @FunctionalInterface
+  private interface RecordVisitor {
+    void visit(long timestamp, int handle, int type) throws IOException;
+  }
+
+  private void forEachRecord(long size, RecordVisitor visitor) {
+    for (long index = 0; index < size; index++) {
+      Chunk chunk = chunk(index);
+      int offset = (int) (index & CHUNK_MASK);
+      byte type;
+      while ((type = (byte) TYPES.getAcquire(chunk.types, offset)) == 0) {
+        // Slot claimed by an append that has not published yet
+        Thread.onSpinWait();
+      }
+      try {
+        visitor.visit(chunk.timestamps[offset], chunk.handles[offset], type - 1);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * writeBinary streams the log in a compact binary form: a header, the interned order ids, then
+   * one fixed-width (timestamp, handle, type) record per action.
+   */
+  public void writeBinary(OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(out);
+    long size = next.get();
+    // Handles are registered after their slot is claimed, so size the id table from the records
+    int[] ids = new int[1];
+    forEachRecord(size, (timestamp, handle, type) -> ids[0] = Math.max(ids[0], handle + 1));
+    data.writeInt(BINARY_MAGIC);
+    data.writeInt(BINARY_VERSION);
+    data.writeInt(ids[0]);
+    for (int handle = 0; handle < ids[0]; handle++) {
+      // A handle still being registered by a concurrent append is not referenced by any record here
+      String id = id(handle);
+      data.writeUTF(id == null ? "" : id);
+    }
+    data.writeLong(size);
+    try {
+      forEachRecord(
+          size,
+          (timestamp, handle, type) -> {
+            data.writeLong(timestamp);
+            data.writeInt(handle);
+            data.writeByte(type);
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    data.flush();
+  }
+
+  /** readBinary loads a log previously written with {@link #writeBinary}. */
+  public static ColumnarActionLog readBinary(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != BINARY_MAGIC || data.readInt() != BINARY_VERSION) {
+      throw new IOException("not a binary action log");
+    }
+    String[] ids = new String[data.readInt()];
+    for (int handle = 0; handle < ids.length; handle++) {
+      ids[handle] = data.readUTF();
+    }
+    ColumnarActionLog log = new ColumnarActionLog();
+    long size = data.readLong();
+    for (long i = 0; i < size; i++) {
+      long timestamp = data.readLong();
+      String id = ids[data.readInt()];
+      log.append(timestamp, id, ACTION_TYPES[data.readByte()]);
+    }
+    return log;
+  }
+
+  private Chunk chunk(long index) {
+    int slot = (int) (index >>> CHUNK_SHIFT);
+    if (slot >= MAX_CHUNKS) {
+      throw new IllegalStateException("action log is full");
+    }
+    Chunk chunk = chunks.get(slot);
+    if (chunk == null) {
+      chunks.compareAndSet(slot, null, new Chunk());
+      chunk = chunks.get(slot);
+    }
+    return chunk;
+  }
+
+  private int handle(String id) {
+    Integer handle = handles.get(id);
+    if (handle != null) {
+      return handle;
+    }
+    return handles.computeIfAbsent(id, this::register);
+  }
+
+  private int register(String id) {
+    int handle = nextHandle.getAndIncrement();
+    int slot = handle >>> CHUNK_SHIFT;
+    String[] ids = idChunks.get(slot);
+    if (ids == null) {
+      idChunks.compareAndSet(slot, null, new String[CHUNK_SIZE]);
+      ids = idChunks.get(slot);
+    }
+    ids[handle & CHUNK_MASK] = id;
+    return handle;
+  }
+
+  private String id(int handle) {
+    String[] ids = idChunks.get(handle >>> CHUNK_SHIFT);
+    return ids == null ? null : ids[handle & CHUNK_MASK];
+  }
+}
@@ -0,0 +1,26 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Json holds the client package's shared, preconfigured jackson objects. Mappers, readers and
+ * factories are thread-safe once configured and expensive to build, so they are created once here
+ * instead of per call.
+ */
+final class Json {
+  static final ObjectMapper MAPPER = new ObjectMapper();
+  static final JsonFactory FACTORY = MAPPER.getFactory();
+  static final ObjectReader ORDER_READER = MAPPER.readerFor(Order.class);
+
+  private Json() {}
+
+  /** generator returns a generator that writes utf-8 json to out and leaves out open on close. */
+  static JsonGenerator generator(OutputStream out) throws IOException {
+    return FACTORY.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+}
@@ -1,31 +1,85 @@
 package com.css.challenge.client;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
-/** Order is a json-friendly representation of an order. */
+/**
+ * Order is a json-friendly representation of an order. On construction, each order also gets its
+ * parsed {@link Temperature}. Orders read from a problem, or drawn from a generator, also carry a
+ * handle: their position in that problem, so a run's orders are numbered from zero. Handles only
+ * label orders compactly, e.g. in decision traces; the kitchen identifies orders by id.
+ */
 public class Order {
+  public static final int NO_HANDLE = -1;
+
   private final String id; // order id
   private final String name; // food name
   private final String temp; // ideal temperature
   private final int freshness; // freshness in seconds
+  private final Temperature temperature; // parsed ideal temperature
+  private final int handle; // position in the problem, or NO_HANDLE
 
   public Order(
       @JsonProperty("id") String id,
       @JsonProperty("name") String name,
       @JsonProperty("temp") String temp,
       @JsonProperty("freshness") int freshness) {
+    this(id, name, temp, freshness, NO_HANDLE);
+  }
+
+  public Order(String id, String name, String temp, int freshness, int handle) {
     this.id = id;
     this.name = name;
     this.temp = temp;
     this.freshness = freshness;
+    this.temperature = Temperature.parse(temp);
+    this.handle = handle;
+  }
+
+  static List<Order> parse(String json) throws IOException {
+    List<Order> orders = new ArrayList<>();
+    try (JsonParser parser = Json.FACTORY.createParser(json)) {
+      parse(parser, orders::add);
+    }
+    return orders;
+  }
+
+  static List<Order> parse(InputStream json) throws IOException {
+    List<Order> orders = new ArrayList<>();
+    parse(json, orders::add);
+    return orders;
   }
 
-  static List<Order> parse(String json) throws JsonProcessingException {
-    return new ObjectMapper().readValue(json, new TypeReference<List<Order>>() {});
+  /**
+   * parse reads a json order array incrementally, handing each order to the consumer as soon as it
+   * has been read, so a caller can act on the first orders while the rest are still arriving. Each
+   * order's handle is its position in the array.
+   */
+  static void parse(InputStream json, Consumer<Order> consumer) throws IOException {
+    try (JsonParser parser = Json.FACTORY.createParser(json)) {
+      parse(parser, consumer);
+    }
+  }
+
+  private static void parse(JsonParser parser, Consumer<Order> consumer) throws IOException {
+    if (parser.nextToken() != JsonToken.START_ARRAY) {
+      throw new IOException("Expected an array of orders at " + parser.getCurrentLocation());
+    }
+    int handle = 0;
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      Order order = Json.ORDER_READER.readValue(parser);
+      consumer.accept(new Order(order.id, order.name, order.temp, order.freshness, handle++));
+    }
+    if (parser.currentToken() != JsonToken.END_ARRAY) {
+      throw new IOException("Expected an order object at " + parser.getCurrentLocation());
+    }
   }
 
   public String getId() {
@@ -44,6 +98,16 @@ public class Order {
     return freshness;
   }
 
+  @JsonIgnore
+  public Temperature getTemperature() {
+    return temperature;
+  }
+
+  @JsonIgnore
+  public int getHandle() {
+    return handle;
+  }
+
   @Override
   public String toString() {
     return "{id: " + id + ", name: " + name + ", temp: " + temp + ", freshness:" + freshness + " }";
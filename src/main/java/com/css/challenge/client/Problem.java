@@ -1,6 +1,12 @@
 package com.css.challenge.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /** Problem represents a test problem */
 public class Problem {
@@ -19,4 +25,34 @@ public class Problem {
   public List<Order> getOrders() {
     return orders;
   }
+
+  /**
+   * load reads a problem from a local json file holding the order array the server would return.
+   * The file name without extension stands in for the test id.
+   */
+  public static Problem load(Path file) throws IOException {
+    String name = file.getFileName().toString();
+    int dot = name.lastIndexOf('.');
+    try (InputStream in = Files.newInputStream(file)) {
+      return new Problem(dot > 0 ? name.substring(0, dot) : name, Order.parse(in));
+    }
+  }
+
+  /**
+   * loadAll loads a single problem file, or every json file of a directory in name order.
+   */
+  public static List<Problem> loadAll(Path path) throws IOException {
+    if (!Files.isDirectory(path)) {
+      return List.of(load(path));
+    }
+    List<Path> files;
+    try (Stream<Path> entries = Files.list(path)) {
+      files = entries.filter(f -> f.toString().endsWith(".json")).sorted().toList();
+    }
+    List<Problem> problems = new ArrayList<>(files.size());
+    for (Path file : files) {
+      problems.add(load(file));
+    }
+    return problems;
+  }
 }
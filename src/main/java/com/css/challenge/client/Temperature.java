@@ -0,0 +1,23 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum Temperature {
+    HOT, COLD, ROOM;
+
+    @JsonValue
+    public String toLower() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Parses a temperature case-insensitively. Anything that is neither hot nor cold is kept at room
+     * temperature, which is how the kitchen has always treated unknown values.
+     */
+    public static Temperature parse(String temp) {
+        if (temp == null) return ROOM;
+        if (temp.equalsIgnoreCase("hot")) return HOT;
+        if (temp.equalsIgnoreCase("cold")) return COLD;
+        return ROOM;
+    }
+}
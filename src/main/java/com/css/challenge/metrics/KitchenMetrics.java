@@ -0,0 +1,332 @@
+package com.css.challenge.metrics;
+
+import com.css.challenge.client.ActionType;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * KitchenMetrics collects operational metrics of a kitchen: placement and pickup latency, action
+ * and miss counters, move attempts, live storage occupancy and, with an admission queue in front of
+ * the kitchen, queue depth, admission wait and shed orders. All updates are lock-free.
+ *
+ * <p>Kitchens running side by side share one instance through {@link #forRun} views: counters and
+ * histograms are shared, while each run's gauges are registered under its own name.
+ */
+public class KitchenMetrics implements KitchenMetricsMXBean {
+  private final LatencyHistogram placeLatency;
+  private final LatencyHistogram pickupLatency;
+  private final LongAdder[] actions;
+  private final LongAdder pickupMisses;
+  private final LongAdder discardedPickups;
+  private final LongAdder moveAttempts;
+  private final Map<String, IntSupplier> occupancy;
+  private final LatencyHistogram admissionWait;
+  private final LongAdder shed;
+  private final LongAdder spilled;
+  private final Map<String, IntSupplier> queueDepth;
+  private final String gaugePrefix;
+
+  public KitchenMetrics() {
+    this.placeLatency = new LatencyHistogram();
+    this.pickupLatency = new LatencyHistogram();
+    this.actions = new LongAdder[ActionType.values().length];
+    for (int i = 0; i < actions.length; i++) {
+      actions[i] = new LongAdder();
+    }
+    this.pickupMisses = new LongAdder();
+    this.discardedPickups = new LongAdder();
+    this.moveAttempts = new LongAdder();
+    this.occupancy = new ConcurrentHashMap<>();
+    this.admissionWait = new LatencyHistogram();
+    this.shed = new LongAdder();
+    this.spilled = new LongAdder();
+    this.queueDepth = new ConcurrentHashMap<>();
+    this.gaugePrefix = "";
+  }
+
+  private KitchenMetrics(KitchenMetrics shared, String gaugePrefix) {
+    this.placeLatency = shared.placeLatency;
+    this.pickupLatency = shared.pickupLatency;
+    this.actions = shared.actions;
+    this.pickupMisses = shared.pickupMisses;
+    this.discardedPickups = shared.discardedPickups;
+    this.moveAttempts = shared.moveAttempts;
+    this.occupancy = shared.occupancy;
+    this.admissionWait = shared.admissionWait;
+    this.shed = shared.shed;
+    this.spilled = shared.spilled;
+    this.queueDepth = shared.queueDepth;
+    this.gaugePrefix = gaugePrefix;
+  }
+
+  /**
+   * forRun returns a view of these metrics for one of several kitchens running side by side. It
+   * records into the same counters and histograms, but registers gauges as {@code run/name}, so
+   * each run's storages and queues keep their own gauges until {@link #unregisterGauges}.
+   */
+  public KitchenMetrics forRun(String run) {
+    return new KitchenMetrics(this, gaugePrefix + run + "/");
+  }
+
+  /**
+   * unregisterGauges removes the gauges registered through this view, e.g. once its run is done;
+   * on the metrics themselves, it removes every gauge.
+   */
+  public void unregisterGauges() {
+    occupancy.keySet().removeIf(name -> name.startsWith(gaugePrefix));
+    queueDepth.keySet().removeIf(name -> name.startsWith(gaugePrefix));
+  }
+
+  public void recordAction(ActionType action) {
+    actions[action.ordinal()].increment();
+  }
+
+  public void recordPlaceLatency(long nanos) {
+    placeLatency.record(nanos);
+  }
+
+  public void recordPickupLatency(long nanos) {
+    pickupLatency.record(nanos);
+  }
+
+  public void recordPickupMiss() {
+    pickupMisses.increment();
+  }
+
+  /** recordDiscardedPickup counts a pickup rejected because its order had been discarded. */
+  public void recordDiscardedPickup() {
+    discardedPickups.increment();
+  }
+
+  public void recordMoveAttempt() {
+    moveAttempts.increment();
+  }
+
+  /**
+   * registerOccupancy exposes a storage's live size. A later registration under the same name
+   * replaces the earlier one, so the gauge follows the most recently created kitchen; kitchens that
+   * run side by side register through their own {@link #forRun} view.
+   */
+  public void registerOccupancy(String storage, IntSupplier size) {
+    occupancy.put(gaugePrefix + storage, size);
+  }
+
+  /** recordAdmissionWait records how long an order waited in the admission queue. */
+  public void recordAdmissionWait(long nanos) {
+    admissionWait.record(nanos);
+  }
+
+  /** recordShed counts an order turned away by a full admission queue. */
+  public void recordShed() {
+    shed.increment();
+  }
+
+  /** recordSpill counts an order deferred to the spill queue by a full admission queue. */
+  public void recordSpill() {
+    spilled.increment();
+  }
+
+  /** registerQueueDepth exposes a queue's live depth, replacing any earlier one of that name. */
+  public void registerQueueDepth(String queue, IntSupplier depth) {
+    queueDepth.put(gaugePrefix + queue, depth);
+  }
+
+  public LatencyHistogram admissionWait() {
+    return admissionWait;
+  }
+
+  public LatencyHistogram placeLatency() {
+    return placeLatency;
+  }
+
+  public LatencyHistogram pickupLatency() {
+    return pickupLatency;
+  }
+
+  /** registerMBean publishes these metrics on the platform MBean server under the given name. */
+  public ObjectName registerMBean(String name) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName objectName =
+        new ObjectName("com.css.challenge:type=KitchenMetrics,name=" + ObjectName.quote(name));
+    if (server.isRegistered(objectName)) {
+      server.unregisterMBean(objectName);
+    }
+    server.registerMBean(this, objectName);
+    return objectName;
+  }
+
+  /** renderText formats the metrics in the Prometheus text exposition format. */
+  public String renderText() {
+    StringBuilder out = new StringBuilder(2048);
+    out.append("# TYPE kitchen_actions_total counter\n");
+    for (ActionType action : ActionType.values()) {
+      sample(out, "kitchen_actions_total", "action", action.toLower(), actions[action.ordinal()].sum());
+    }
+    out.append("# TYPE kitchen_pickup_misses_total counter\n");
+    sample(out, "kitchen_pickup_misses_total", null, null, pickupMisses.sum());
+    out.append("# TYPE kitchen_discarded_pickups_total counter\n");
+    sample(out, "kitchen_discarded_pickups_total", null, null, discardedPickups.sum());
+    out.append("# TYPE kitchen_move_attempts_total counter\n");
+    sample(out, "kitchen_move_attempts_total", null, null, moveAttempts.sum());
+    out.append("# TYPE kitchen_storage_occupancy gauge\n");
+    getOccupancy()
+        .forEach((storage, size) -> sample(out, "kitchen_storage_occupancy", "storage", storage, size));
+    if (!queueDepth.isEmpty()) {
+      out.append("# TYPE kitchen_admission_queue_depth gauge\n");
+      getQueueDepth()
+          .forEach(
+              (queue, depth) ->
+                  sample(out, "kitchen_admission_queue_depth", "queue", queue, depth));
+      out.append("# TYPE kitchen_admission_shed_total counter\n");
+      sample(out, "kitchen_admission_shed_total", null, null, shed.sum());
+      out.append("# TYPE kitchen_admission_spilled_total counter\n");
+      sample(out, "kitchen_admission_spilled_total", null, null, spilled.sum());
+      summary(out, "kitchen_admission_wait_seconds", admissionWait);
+    }
+    summary(out, "kitchen_place_latency_seconds", placeLatency);
+    summary(out, "kitchen_pickup_latency_seconds", pickupLatency);
+    return out.toString();
+  }
+
+  private static void summary(StringBuilder out, String name, LatencyHistogram histogram) {
+    out.append("# TYPE ").append(name).append(" summary\n");
+    for (String q : new String[] {"0.5", "0.9", "0.99", "0.999"}) {
+      sample(out, name, "quantile", q, histogram.percentile(Double.parseDouble(q)) / 1e9);
+    }
+    sample(out, name, "quantile", "1", histogram.max() / 1e9);
+    sample(out, name + "_sum", null, null, histogram.mean() * histogram.count() / 1e9);
+    sample(out, name + "_count", null, null, histogram.count());
+  }
+
+  private static void sample(StringBuilder out, String name, String label, String value, Number sample) {
+    out.append(name);
+    if (label != null) {
+      out.append('{').append(label).append("=\"").append(value).append("\"}");
+    }
+    out.append(' ');
+    if (sample instanceof Double d) {
+      out.append(String.format(Locale.ROOT, "%.9f", d));
+    } else {
+      out.append(sample);
+    }
+    out.append('\n');
+  }
+
+  @Override
+  public long getPlaced() {
+    return actions[ActionType.PLACE.ordinal()].sum();
+  }
+
+  @Override
+  public long getMoved() {
+    return actions[ActionType.MOVE.ordinal()].sum();
+  }
+
+  @Override
+  public long getPickedUp() {
+    return actions[ActionType.PICKUP.ordinal()].sum();
+  }
+
+  @Override
+  public long getDiscarded() {
+    return actions[ActionType.DISCARD.ordinal()].sum();
+  }
+
+  @Override
+  public long getPickupMisses() {
+    return pickupMisses.sum();
+  }
+
+  @Override
+  public long getDiscardedPickups() {
+    return discardedPickups.sum();
+  }
+
+  @Override
+  public long getMoveAttempts() {
+    return moveAttempts.sum();
+  }
+
+  @Override
+  public double getMoveAttemptsPerPlacement() {
+    long placed = getPlaced();
+    return placed == 0 ? 0 : (double) moveAttempts.sum() / placed;
+  }
+
+  @Override
+  public Map<String, Integer> getOccupancy() {
+    Map<String, Integer> sizes = new TreeMap<>();
+    occupancy.forEach((storage, size) -> sizes.put(storage, size.getAsInt()));
+    return sizes;
+  }
+
+  @Override
+  public long getPlaceLatencyP50() {
+    return placeLatency.percentile(0.5);
+  }
+
+  @Override
+  public long getPlaceLatencyP99() {
+    return placeLatency.percentile(0.99);
+  }
+
+  @Override
+  public long getPlaceLatencyMax() {
+    return placeLatency.max();
+  }
+
+  @Override
+  public long getPickupLatencyP50() {
+    return pickupLatency.percentile(0.5);
+  }
+
+  @Override
+  public long getPickupLatencyP99() {
+    return pickupLatency.percentile(0.99);
+  }
+
+  @Override
+  public long getPickupLatencyMax() {
+    return pickupLatency.max();
+  }
+
+  @Override
+  public long getShed() {
+    return shed.sum();
+  }
+
+  @Override
+  public long getSpilled() {
+    return spilled.sum();
+  }
+
+  @Override
+  public Map<String, Integer> getQueueDepth() {
+    Map<String, Integer> depths = new TreeMap<>();
+    queueDepth.forEach((queue, depth) -> depths.put(queue, depth.getAsInt()));
+    return depths;
+  }
+
+  @Override
+  public long getAdmissionWaitP50() {
+    return admissionWait.percentile(0.5);
+  }
+
+  @Override
+  public long getAdmissionWaitP99() {
+    return admissionWait.percentile(0.99);
+  }
+
+  @Override
+  public long getAdmissionWaitMax() {
+    return admissionWait.max();
+  }
+}
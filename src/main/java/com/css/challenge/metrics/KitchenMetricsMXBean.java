@@ -0,0 +1,48 @@
+package com.css.challenge.metrics;
+
+import java.util.Map;
+
+/** KitchenMetricsMXBean is the JMX view of {@link KitchenMetrics}. Latencies are in nanoseconds. */
+public interface KitchenMetricsMXBean {
+  long getPlaced();
+
+  long getMoved();
+
+  long getPickedUp();
+
+  long getDiscarded();
+
+  long getPickupMisses();
+
+  long getDiscardedPickups();
+
+  long getMoveAttempts();
+
+  double getMoveAttemptsPerPlacement();
+
+  Map<String, Integer> getOccupancy();
+
+  long getPlaceLatencyP50();
+
+  long getPlaceLatencyP99();
+
+  long getPlaceLatencyMax();
+
+  long getPickupLatencyP50();
+
+  long getPickupLatencyP99();
+
+  long getPickupLatencyMax();
+
+  long getShed();
+
+  long getSpilled();
+
+  Map<String, Integer> getQueueDepth();
+
+  long getAdmissionWaitP50();
+
+  long getAdmissionWaitP99();
+
+  long getAdmissionWaitMax();
+}
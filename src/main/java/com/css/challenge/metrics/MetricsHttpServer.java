@@ -0,0 +1,41 @@
+package com.css.challenge.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MetricsHttpServer serves {@link KitchenMetrics#renderText()} at {@code /metrics} on the JDK's
+ * built-in HTTP server, for Prometheus-style scraping.
+ */
+public class MetricsHttpServer implements AutoCloseable {
+  private final HttpServer server;
+
+  public MetricsHttpServer(int port, KitchenMetrics metrics) throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress(port), 0);
+    this.server.createContext("/metrics", exchange -> respond(exchange, metrics));
+    this.server.start();
+  }
+
+  /** port is the bound port, useful when the server was started on port 0. */
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  private static void respond(HttpExchange exchange, KitchenMetrics metrics) throws IOException {
+    byte[] body = metrics.renderText().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
@@ -0,0 +1,340 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.metrics.KitchenMetrics;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    Bounded intake stage in front of a KitchenManager. Producers enqueue placements, pickups and reaps; one
+    drainer thread takes up to maxBatch commands at a time, in arrival order, and applies runs of placements
+    and pickups through the kitchen's batch entry points. The drainer is the kitchen's only writer.
+
+    At most capacity placements wait in the queue. When it is full, an arriving order is handled by the
+    overflow policy:
+    - BLOCK: the producer waits for room, so a rate spike slows producers rather than growing the queue.
+    - SHED: the order is turned away and never placed.
+    - SPILL: the order waits in an unbounded deferred queue and enters the main queue, oldest first, as room
+      frees up. If its courier arrives first, the spilled order is dropped.
+    Pickups and reaps are never bounded or shed: they free the kitchen. Queue depth, spilled depth, admission
+    wait (enqueue to drain) and shed and spill counts go to the kitchen's metrics.
+ */
+public class AdmissionQueue implements AutoCloseable {
+    public static final int DEFAULT_MAX_BATCH = 32;
+
+    public enum Overflow {
+        BLOCK, SHED, SPILL
+    }
+
+    private static final int PLACE = 1;
+    private static final int PICKUP = 2;
+    private static final int REAP = 3;
+
+    private final KitchenManager kitchen;
+    private final KitchenMetrics metrics;
+    private final int capacity;
+    private final Overflow overflow;
+    private final int maxBatch;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition idle = lock.newCondition();
+    // Guarded by lock
+    private final ArrayDeque<Command> queue = new ArrayDeque<>();
+    private final ArrayDeque<Command> spill = new ArrayDeque<>();
+    private final Map<String, Command> spilledById = new HashMap<>();
+    private int queuedPlacements;
+    private boolean draining;
+    private boolean closed;
+
+    private final Thread thread;
+
+    private static final class Command {
+        final int type;
+        final Order order;
+        final Duration pickupDelay;
+        final String id;
+        final int limit;
+        final long enqueuedNanos = System.nanoTime();
+        final CompletableFuture<Boolean> result;
+        boolean dropped;
+
+        Command(int type, Order order, Duration pickupDelay, String id, int limit, CompletableFuture<Boolean> result) {
+            this.type = type;
+            this.order = order;
+            this.pickupDelay = pickupDelay;
+            this.id = id;
+            this.limit = limit;
+            this.result = result;
+        }
+    }
+
+    public AdmissionQueue(KitchenManager kitchen, int capacity, Overflow overflow) {
+        this(kitchen, capacity, overflow, DEFAULT_MAX_BATCH);
+    }
+
+    public AdmissionQueue(KitchenManager kitchen, int capacity, Overflow overflow, int maxBatch) {
+        if (capacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("capacity and maxBatch must be positive: " + capacity + ", "
+                    + maxBatch);
+        }
+        this.kitchen = kitchen;
+        this.metrics = kitchen.getMetrics();
+        this.capacity = capacity;
+        this.overflow = overflow;
+        this.maxBatch = maxBatch;
+        metrics.registerQueueDepth("admission", this::depth);
+        metrics.registerQueueDepth("spill", this::spilled);
+        this.thread = new Thread(this::drain, "kitchen-admission");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /*
+        Admits an order for placement; its courier is expected after pickupDelay. Returns false if the order
+        was shed, in which case it will never be placed. Under BLOCK this waits for room; if the waiting
+        thread is interrupted, the order is shed and the interrupt flag is kept.
+     */
+    public boolean placeOrder(Order order, Duration pickupDelay) {
+        Command command = new Command(PLACE, order, pickupDelay, null, 0, null);
+        lock.lock();
+        try {
+            checkOpen();
+            while (queuedPlacements >= capacity) {
+                switch (overflow) {
+                    case SHED -> {
+                        metrics.recordShed();
+                        return false;
+                    }
+                    case SPILL -> {
+                        spill.add(command);
+                        spilledById.put(order.getId(), command);
+                        metrics.recordSpill();
+                        return true;
+                    }
+                    case BLOCK -> {
+                        try {
+                            notFull.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            metrics.recordShed();
+                            return false;
+                        }
+                        checkOpen();
+                    }
+                }
+            }
+            enqueue(command);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        Completes with true if the order was in the kitchen and has been picked up. Queued behind every
+        command admitted before it, so a pickup never overtakes its order's placement; an order still in the
+        spill queue would enter the main queue behind its pickup, so it is dropped instead.
+     */
+    public CompletableFuture<Boolean> pickupOrder(String id) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Command command = new Command(PICKUP, null, null, id, 0, result);
+        lock.lock();
+        try {
+            checkOpen();
+            Command spilled = spilledById.remove(id);
+            if (spilled != null) spilled.dropped = true;
+            enqueue(command);
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    /*
+        Queues a kitchen.reapExpired(maxBatch) behind the commands admitted so far.
+     */
+    public void reapExpired(int maxBatch) {
+        Command command = new Command(REAP, null, null, null, maxBatch, null);
+        lock.lock();
+        try {
+            checkOpen();
+            enqueue(command);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        Placements waiting in the main queue.
+     */
+    public int depth() {
+        lock.lock();
+        try {
+            return queuedPlacements;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        Placements waiting in the spill queue.
+     */
+    public int spilled() {
+        lock.lock();
+        try {
+            return spilledById.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        Waits until every admitted command, spilled placements included, has been applied.
+     */
+    public void awaitIdle() throws InterruptedException {
+        lock.lock();
+        try {
+            while (!queue.isEmpty() || !spill.isEmpty() || draining) {
+                idle.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+        Applies every admitted command, then stops the drainer. Later submissions are rejected.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("admission queue is closed");
+    }
+
+    private void enqueue(Command command) {
+        queue.add(command);
+        if (command.type == PLACE) queuedPlacements++;
+        notEmpty.signal();
+    }
+
+    private void drain() {
+        List<Command> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            lock.lock();
+            try {
+                draining = false;
+                if (queue.isEmpty() && spill.isEmpty()) idle.signalAll();
+                while (queue.isEmpty()) {
+                    if (closed) return;
+                    notEmpty.awaitUninterruptibly();
+                }
+                take(batch);
+                draining = true;
+            } finally {
+                lock.unlock();
+            }
+            apply(batch);
+            batch.clear();
+        }
+    }
+
+    /*
+        Moves up to maxBatch commands from the queue into the batch and lets spilled placements take the freed
+        room.
+     */
+    private void take(List<Command> batch) {
+        long now = System.nanoTime();
+        while (batch.size() < maxBatch && !queue.isEmpty()) {
+            Command command = queue.poll();
+            if (command.type == PLACE) {
+                queuedPlacements--;
+                metrics.recordAdmissionWait(now - command.enqueuedNanos);
+            }
+            batch.add(command);
+        }
+        while (queuedPlacements < capacity && !spill.isEmpty()) {
+            Command spilled = spill.poll();
+            if (!spilled.dropped) {
+                spilledById.remove(spilled.order.getId());
+                enqueue(spilled);
+            }
+        }
+        notFull.signalAll();
+    }
+
+    /*
+        Applies the batch in order, grouping consecutive placements and consecutive pickups into one kitchen
+        call each.
+     */
+    private void apply(List<Command> batch) {
+        int start = 0;
+        while (start < batch.size()) {
+            int type = batch.get(start).type;
+            int end = start + 1;
+            while (end < batch.size() && batch.get(end).type == type && type != REAP) end++;
+            List<Command> run = batch.subList(start, end);
+            try {
+                switch (type) {
+                    case PLACE -> place(run);
+                    case PICKUP -> pickup(run);
+                    default -> kitchen.reapExpired(run.get(0).limit);
+                }
+            } catch (RuntimeException e) {
+                for (Command command : run) {
+                    if (command.result != null) command.result.completeExceptionally(e);
+                }
+            }
+            start = end;
+        }
+    }
+
+    private void place(List<Command> run) {
+        if (run.size() == 1) {
+            kitchen.placeOrder(run.get(0).order, run.get(0).pickupDelay);
+            return;
+        }
+        List<Order> orders = new ArrayList<>(run.size());
+        List<Duration> delays = new ArrayList<>(run.size());
+        for (Command command : run) {
+            orders.add(command.order);
+            delays.add(command.pickupDelay);
+        }
+        kitchen.placeOrders(orders, delays);
+    }
+
+    private void pickup(List<Command> run) {
+        List<String> ids = new ArrayList<>(run.size());
+        for (Command command : run) {
+            ids.add(command.id);
+        }
+        boolean[] found = kitchen.pickupOrders(ids);
+        for (int i = 0; i < run.size(); i++) {
+            run.get(i).result.complete(found[i]);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    Storage whose capacity is enforced by reserving a slot on an atomic counter before an order is inserted.
+    Concurrent adds can never overfill it, duplicate ids are rejected, and isFull is a single volatile read.
+    Orders are held in an id-keyed open-addressing map guarded by its own monitor. That trades the lock-free
+    map operations of a ConcurrentHashMap for no per-order entry objects: the counter still turns a full
+    storage away without locking, and the monitor is only held for a probe of a table sized to the
+    capacity, so contention is limited to adds and removes that actually change the contents.
+ */
+public class AtomicCapacityStorage implements Storage {
+    private final String name;
+    private final String temperature;
+    private final int capacity;
+    private final AtomicInteger occupied = new AtomicInteger();
+    private final OrderMap orders;
+
+    public AtomicCapacityStorage(String name, String temperature, int capacity) {
+        this.name = name;
+        this.temperature = temperature;
+        this.capacity = capacity;
+        this.orders = new OrderMap(capacity);
+    }
+
+    @Override
+    public boolean addOrder(Order order) {
+        if (!reserve()) return false;
+        Order existing;
+        synchronized (orders) {
+            existing = orders.putIfAbsent(order);
+        }
+        if (existing != null) {
+            release();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean removeOrder(Order order) {
+        return removeOrderById(order.getId());
+    }
+
+    @Override
+    public boolean removeOrderById(String id) {
+        Order removed;
+        synchronized (orders) {
+            removed = orders.remove(id);
+        }
+        if (removed == null) return false;
+        release();
+        return true;
+    }
+
+    @Override
+    public Optional<Order> getOrderById(String id) {
+        synchronized (orders) {
+            return Optional.ofNullable(orders.get(id));
+        }
+    }
+
+    @Override
+    public List<Order> getAllOrders() {
+        synchronized (orders) {
+            return orders.values();
+        }
+    }
+
+    @Override
+    public boolean isFull() {
+        return occupied.get() >= capacity;
+    }
+
+    public int size() {
+        return occupied.get();
+    }
+
+    /*
+        Moves an order from source into this storage. The slot here is reserved first, so once the order has
+        been taken off the source the move cannot fail and the order is never lost; removal from the source is
+        the linearization point, so two concurrent moves (or a move racing a pickup) cannot both claim it.
+        A move of an id this storage already holds is refused before the source is touched. Should an order
+        with the id be added here between that check and the insert, the reservation is released and the move
+        fails with the order off both storages; the kitchen admits each id once, so it never gets there.
+     */
+    public boolean moveFrom(Storage source, Order order) {
+        if (!reserve()) return false;
+        boolean held;
+        synchronized (orders) {
+            held = orders.get(order.getId()) != null;
+        }
+        if (held || !source.removeOrder(order)) {
+            release();
+            return false;
+        }
+        Order existing;
+        synchronized (orders) {
+            existing = orders.putIfAbsent(order);
+        }
+        if (existing != null) {
+            release();
+            return false;
+        }
+        return true;
+    }
+
+    public boolean moveFrom(Storage source, String id) {
+        Optional<Order> order = source.getOrderById(id);
+        return order.isPresent() && moveFrom(source, order.get());
+    }
+
+    private boolean reserve() {
+        int current;
+        do {
+            current = occupied.get();
+            if (current >= capacity) return false;
+        } while (!occupied.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void release() {
+        occupied.decrementAndGet();
+    }
+}
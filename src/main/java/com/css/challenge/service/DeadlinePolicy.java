@@ -0,0 +1,77 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+
+/*
+    Uses each order's expected pickup, when known, to spend as few moves and discards as possible:
+
+    - Move: an order that would expire on the shelf before its courier arrives but would last in its ideal
+      storage is rescued first, soonest to expire first. Otherwise the order whose courier is furthest away
+      moves, since it would hold a shelf slot longest.
+    - Discard: an order that will be dead by its pickup whatever happens costs nothing to discard, so those go
+      first, soonest to expire first. Otherwise, as in Belady's cache replacement, the order needed furthest in
+      the future goes, keeping shelf slots for orders that will free them soon.
+
+    Orders with no known pickup count as needed last and as doomed, so with no deadlines at all this falls
+    back to discarding the stalest order. Each decision is one pass over the shelf.
+ */
+public class DeadlinePolicy implements PlacementPolicy {
+    @Override
+    public Order moveCandidate(Order incoming, long pickupAt, KitchenView kitchen) {
+        boolean heaterRoom = kitchen.hasRoom(KitchenManager.IN_HEATER);
+        boolean coolerRoom = kitchen.hasRoom(KitchenManager.IN_COOLER);
+        if (!heaterRoom && !coolerRoom) return null;
+
+        long now = kitchen.now();
+        Choice rescue = new Choice();
+        Choice furthest = new Choice();
+        kitchen.forEachOnShelf((order, expiry) -> {
+            Temperature temperature = order.getTemperature();
+            if (!(temperature == Temperature.HOT && heaterRoom) && !(temperature == Temperature.COLD && coolerRoom)) {
+                return;
+            }
+            long pickup = kitchen.pickupAt(order);
+            // In ideal storage the remaining freshness lasts SHELF_DECAY_RATE times as long
+            long idealExpiry = now + Math.max(expiry - now, 0) * FreshnessShelfStorage.SHELF_DECAY_RATE;
+            if (expiry < pickup && idealExpiry >= pickup) {
+                rescue.offer(order, -expiry, 0);
+            } else {
+                furthest.offer(order, pickup, -expiry);
+            }
+        });
+        return rescue.order != null ? rescue.order : furthest.order;
+    }
+
+    @Override
+    public Order discardVictim(Order incoming, long pickupAt, KitchenView kitchen) {
+        Choice doomed = new Choice();
+        Choice furthest = new Choice();
+        kitchen.forEachOnShelf((order, expiry) -> {
+            long pickup = kitchen.pickupAt(order);
+            if (expiry < pickup) {
+                doomed.offer(order, -expiry, 0);
+            } else {
+                furthest.offer(order, pickup, -expiry);
+            }
+        });
+        return doomed.order != null ? doomed.order : furthest.order;
+    }
+
+    /*
+        Running best of a scan: the highest key, ties broken by the highest second key.
+     */
+    private static final class Choice {
+        Order order;
+        long key;
+        long tie;
+
+        void offer(Order candidate, long candidateKey, long candidateTie) {
+            if (order == null || candidateKey > key || (candidateKey == key && candidateTie > tie)) {
+                order = candidate;
+                key = candidateKey;
+                tie = candidateTie;
+            }
+        }
+    }
+}
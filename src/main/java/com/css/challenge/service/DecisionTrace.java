@@ -0,0 +1,298 @@
+package com.css.challenge.service;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntFunction;
+
+/*
+    Low-overhead forensic trace of kitchen decisions: which storage an order was tried in, which order was
+    picked to move or discard and why. Each event is a fixed-size record of three longs written into a ring
+    buffer owned by the recording thread, so recording takes no lock, allocates nothing and does no I/O; when
+    a ring wraps, its oldest records are overwritten. Records are decoded only when dumped.
+
+    Rings of threads that have ended are kept, so their records still show in dumps, but only the most recent
+    RETIRED_RINGS of them: older ones are dropped whenever a thread starts recording or a snapshot is taken,
+    and clear drops them all. Rings are meant for long-lived threads: each costs RECORDS_PER_THREAD * 24
+    bytes up front and every new one scans the held rings, so tracing is not supported with the
+    virtual-thread scheduler, which runs each event on a fresh thread, and that scheduler refuses to start
+    while it is enabled. A run whose few virtual threads each handle many events, such as a virtual-time
+    batch run, is fine.
+
+    Tracing is enabled with -Dchallenge.trace=true (ring size per thread: -Dchallenge.trace.records). The
+    flag is a static final constant, so with tracing off the JIT removes `if (DecisionTrace.ENABLED)` guarded
+    calls entirely. Orders are recorded by handle; dumps take a function naming handles.
+ */
+public final class DecisionTrace {
+    public static final boolean ENABLED = Boolean.getBoolean("challenge.trace");
+    static final int RECORDS_PER_THREAD =
+            Integer.highestOneBit(Math.max(64, Integer.getInteger("challenge.trace.records", 1 << 12)));
+    static final int RETIRED_RINGS = 64;
+
+    private static final int WORDS = 3;
+    private static final int FILE_MAGIC = 0x434b5452; // "CKTR"
+    private static final String[] LOCATIONS = {"heater", "cooler", "shelf"};
+    private static final Event[] EVENTS = Event.values();
+    private static final Reason[] REASONS = Reason.values();
+
+    private static final Queue<Ring> RINGS = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<Ring> RING = ThreadLocal.withInitial(() -> {
+        retire(RETIRED_RINGS);
+        Ring ring = new Ring(Thread.currentThread(), RECORDS_PER_THREAD);
+        RINGS.add(ring);
+        return ring;
+    });
+
+    public enum Event {
+        RECEIVED, // an order arrived for placement
+        PICKUP_DUE, // a courier arrived for the order
+        IDEAL_FULL, // the order's heater or cooler (location) had no room
+        SHELF_FULL, // the shelf had no room for the order
+        MOVE_CANDIDATE, // other was chosen to move from the shelf to location to make room for the order
+        MOVE_FAILED, // the move of other did not go through
+        DISCARD_VICTIM, // other was discarded from location, for reason
+        PICKED_UP, // the order was picked up from location
+        PICKUP_MISSED // the order was not in the kitchen when its courier arrived
+    }
+
+    public enum Reason {
+        NONE, STALEST, EXPIRED, POLICY
+    }
+
+    /*
+        A decoded record. Time is System.nanoTime() at recording; other is -1 when the event has no second order.
+     */
+    public record Record(long nanos, String thread, Event event, int handle, int other, byte location,
+                         Reason reason) {
+        String format(long origin, IntFunction<String> names) {
+            StringBuilder line = new StringBuilder();
+            line.append(String.format("%12.3fms %-20s %-15s %s", (nanos - origin) / 1e6, thread, event,
+                    names.apply(handle)));
+            if (other >= 0) line.append(" other=").append(names.apply(other));
+            if (location >= 0 && location < LOCATIONS.length) line.append(" at=").append(LOCATIONS[location]);
+            if (reason != Reason.NONE) line.append(" reason=").append(reason);
+            return line.toString();
+        }
+    }
+
+    private DecisionTrace() {}
+
+    public static void record(Event event, int handle) {
+        record(event, handle, -1, (byte) -1, Reason.NONE);
+    }
+
+    public static void record(Event event, int handle, byte location) {
+        record(event, handle, -1, location, Reason.NONE);
+    }
+
+    public static void record(Event event, int handle, int other, byte location, Reason reason) {
+        if (!ENABLED) return;
+        RING.get().append(System.nanoTime(),
+                ((long) event.ordinal() << 16) | ((location & 0xffL) << 8) | reason.ordinal(),
+                ((long) handle << 32) | (other & 0xffffffffL));
+    }
+
+    /*
+        Every retained record of every thread, oldest first. Safe to call while threads are still recording;
+        records overwritten during the copy are left out.
+     */
+    public static List<Record> snapshot() {
+        retire(RETIRED_RINGS);
+        List<Record> records = new ArrayList<>();
+        for (Ring ring : RINGS) {
+            ring.copyTo(records);
+        }
+        records.sort(Comparator.comparingLong(Record::nanos));
+        return records;
+    }
+
+    /*
+        Drops every recorded event, e.g. between runs, and the rings of threads that have ended. Only call while
+        no thread is recording.
+     */
+    public static void clear() {
+        retire(0);
+        for (Ring ring : RINGS) {
+            ring.clear();
+        }
+    }
+
+    /*
+        Number of rings held, live and retired.
+     */
+    static int rings() {
+        return RINGS.size();
+    }
+
+    /*
+        Drops the oldest rings of ended threads until at most kept of them remain. Rings are queued in the order
+        their threads started recording, so the ones kept are those of the threads that started last.
+     */
+    private static void retire(int kept) {
+        List<Ring> ended = new ArrayList<>();
+        for (Ring ring : RINGS) {
+            if (!ring.owner.isAlive()) ended.add(ring);
+        }
+        for (int i = 0; i < ended.size() - kept; i++) {
+            RINGS.remove(ended.get(i));
+        }
+    }
+
+    /*
+        Writes the snapshot as text, one event per line, with times relative to the first event.
+     */
+    public static void dump(Appendable out, IntFunction<String> names) throws IOException {
+        format(snapshot(), out, names);
+    }
+
+    /*
+        Writes the snapshot in binary, with the names of the orders it mentions, for decode to read back later.
+     */
+    public static void write(OutputStream stream, IntFunction<String> names) throws IOException {
+        List<Record> records = snapshot();
+        Map<Integer, String> mentioned = new HashMap<>();
+        for (Record record : records) {
+            mentioned.computeIfAbsent(record.handle(), names::apply);
+            if (record.other() >= 0) mentioned.computeIfAbsent(record.other(), names::apply);
+        }
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(mentioned.size());
+        for (Map.Entry<Integer, String> name : mentioned.entrySet()) {
+            out.writeInt(name.getKey());
+            out.writeUTF(name.getValue());
+        }
+        out.writeInt(records.size());
+        for (Record record : records) {
+            out.writeLong(record.nanos());
+            out.writeUTF(record.thread());
+            out.writeByte(record.event().ordinal());
+            out.writeInt(record.handle());
+            out.writeInt(record.other());
+            out.writeByte(record.location());
+            out.writeByte(record.reason().ordinal());
+        }
+        out.flush();
+    }
+
+    /*
+        Decodes a file written by write to text.
+     */
+    public static void decode(InputStream stream, Appendable out) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != FILE_MAGIC) throw new IOException("Not a decision trace");
+        Map<Integer, String> names = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            names.put(in.readInt(), in.readUTF());
+        }
+        int count = in.readInt();
+        List<Record> records = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                records.add(new Record(in.readLong(), in.readUTF(), EVENTS[in.readByte()], in.readInt(),
+                        in.readInt(), in.readByte(), REASONS[in.readByte()]));
+            }
+        } catch (EOFException e) {
+            // A truncated file still decodes up to its last whole record
+        }
+        format(records, out, handle -> names.getOrDefault(handle, "#" + handle));
+    }
+
+    /*
+        Dump tool: decodes trace files to standard output.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: DecisionTrace <trace file>...");
+            System.exit(2);
+        }
+        for (String file : args) {
+            try (InputStream in = Files.newInputStream(Path.of(file))) {
+                decode(in, System.out);
+            }
+        }
+    }
+
+    private static void format(List<Record> records, Appendable out, IntFunction<String> names)
+            throws IOException {
+        long origin = records.isEmpty() ? 0 : records.get(0).nanos();
+        for (Record record : records) {
+            out.append(record.format(origin, names)).append('\n');
+        }
+    }
+
+    /*
+        One thread's records. Only the owner writes; the write count is published with a release store after
+        each record, so readers see whole records and can tell which ones were overwritten while copying.
+     */
+    private static final class Ring {
+        private static final VarHandle WRITTEN;
+
+        static {
+            try {
+                WRITTEN = MethodHandles.lookup().findVarHandle(Ring.class, "written", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final Thread owner;
+        private final String thread;
+        private final long[] words;
+        private final int mask;
+        private long written;
+
+        Ring(Thread owner, int records) {
+            this.owner = owner;
+            this.thread = owner.getName();
+            this.words = new long[records * WORDS];
+            this.mask = records - 1;
+        }
+
+        void append(long nanos, long codes, long handles) {
+            long sequence = written;
+            int offset = (int) (sequence & mask) * WORDS;
+            words[offset] = nanos;
+            words[offset + 1] = codes;
+            words[offset + 2] = handles;
+            WRITTEN.setRelease(this, sequence + 1);
+        }
+
+        void copyTo(List<Record> records) {
+            long end = (long) WRITTEN.getAcquire(this);
+            long start = Math.max(0, end - mask - 1);
+            List<Record> copied = new ArrayList<>((int) (end - start));
+            for (long sequence = start; sequence < end; sequence++) {
+                int offset = (int) (sequence & mask) * WORDS;
+                long codes = words[offset + 1];
+                long handles = words[offset + 2];
+                copied.add(new Record(words[offset], thread, EVENTS[(int) (codes >>> 16) & 0xff],
+                        (int) (handles >>> 32), (int) handles, (byte) (codes >>> 8), REASONS[(int) codes & 0xff]));
+            }
+            // The writer may have lapped the copy; anything older than one ring behind its position is suspect
+            VarHandle.acquireFence();
+            long overwritten = (long) WRITTEN.getAcquire(this) - mask - 1;
+            int skip = (int) Math.max(0, Math.min(copied.size(), overwritten - start));
+            records.addAll(copied.subList(skip, copied.size()));
+        }
+
+        void clear() {
+            WRITTEN.setRelease(this, 0L);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.css.challenge.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+    Bounded set of recently discarded order ids. Once full, each new tombstone evicts the oldest, so memory
+    stays constant however long the kitchen runs; a pickup that arrives after its tombstone was evicted is
+    simply treated as an unknown id.
+ */
+class DiscardTombstones {
+    private final String[] ring;
+    private final Set<String> ids;
+    private int next;
+
+    DiscardTombstones(int capacity) {
+        this.ring = new String[capacity];
+        this.ids = new HashSet<>(capacity * 2);
+    }
+
+    synchronized void add(String id) {
+        if (!ids.add(id)) return;
+        String evicted = ring[next];
+        if (evicted != null) {
+            ids.remove(evicted);
+        }
+        ring[next] = id;
+        next = (next + 1) % ring.length;
+    }
+
+    synchronized boolean contains(String id) {
+        return ids.contains(id);
+    }
+
+    /*
+        The tombstones held, oldest first, so adding them in order rebuilds the same set.
+     */
+    synchronized List<String> snapshot() {
+        List<String> held = new ArrayList<>(ids.size());
+        for (int i = 0; i < ring.length; i++) {
+            String id = ring[(next + i) % ring.length];
+            if (id != null) held.add(id);
+        }
+        return held;
+    }
+}
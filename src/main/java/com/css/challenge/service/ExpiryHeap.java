@@ -0,0 +1,125 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+    Indexed binary min-heap of orders keyed by their expiry (unix micros). The id -> slot index lets remove
+    and re-key work in place in O(log n); peeking the soonest-to-expire order is O(1). Holds at most one
+    order per id.
+    Not thread-safe; owners guard it.
+ */
+class ExpiryHeap {
+    private Order[] orders;
+    private long[] expiries;
+    private final OrderSlots slots;
+    private int size;
+
+    ExpiryHeap(int capacity) {
+        this.orders = new Order[Math.max(capacity, 1)];
+        this.expiries = new long[Math.max(capacity, 1)];
+        this.slots = new OrderSlots(Math.max(capacity, 1));
+    }
+
+    boolean add(Order order, long expiry) {
+        if (slots.containsKey(order.getId())) return false;
+        if (size == orders.length) {
+            orders = Arrays.copyOf(orders, size * 2);
+            expiries = Arrays.copyOf(expiries, size * 2);
+        }
+        set(size, order, expiry);
+        siftUp(size++);
+        return true;
+    }
+
+    Order remove(String id) {
+        int slot = slots.remove(id);
+        if (slot == OrderSlots.MISSING) return null;
+        Order removed = orders[slot];
+        int last = --size;
+        if (slot != last) {
+            set(slot, orders[last], expiries[last]);
+            orders[last] = null;
+            if (!siftUp(slot)) siftDown(slot);
+        } else {
+            orders[last] = null;
+        }
+        return removed;
+    }
+
+    boolean updateExpiry(String id, long expiry) {
+        int slot = slots.get(id);
+        if (slot == OrderSlots.MISSING) return false;
+        expiries[slot] = expiry;
+        if (!siftUp(slot)) siftDown(slot);
+        return true;
+    }
+
+    Order get(String id) {
+        int slot = slots.get(id);
+        return slot == OrderSlots.MISSING ? null : orders[slot];
+    }
+
+    long expiryOf(String id) {
+        int slot = slots.get(id);
+        return slot == OrderSlots.MISSING ? Long.MAX_VALUE : expiries[slot];
+    }
+
+    Order peek() {
+        return size == 0 ? null : orders[0];
+    }
+
+    long peekExpiry() {
+        return size == 0 ? Long.MAX_VALUE : expiries[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    List<Order> values() {
+        List<Order> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(orders[i]);
+        }
+        return values;
+    }
+
+    private void set(int slot, Order order, long expiry) {
+        orders[slot] = order;
+        expiries[slot] = expiry;
+        slots.put(order, slot);
+    }
+
+    private boolean siftUp(int slot) {
+        int start = slot;
+        Order order = orders[slot];
+        long expiry = expiries[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (expiries[parent] <= expiry) break;
+            set(slot, orders[parent], expiries[parent]);
+            slot = parent;
+        }
+        set(slot, order, expiry);
+        return slot != start;
+    }
+
+    private void siftDown(int slot) {
+        Order order = orders[slot];
+        long expiry = expiries[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && expiries[right] < expiries[child]) child = right;
+            if (expiry <= expiries[child]) break;
+            set(slot, orders[child], expiries[child]);
+            slot = child;
+        }
+        set(slot, order, expiry);
+    }
+}
@@ -0,0 +1,28 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+
+/*
+    The default policy, using freshness alone: move the hot shelf order closest to expiring into the heater if
+    it has room, else the cold one into the cooler, and discard the shelf order closest to expiring. Every
+    decision is O(1) on the shelf's expiry heaps.
+ */
+public class FreshnessPolicy implements PlacementPolicy {
+    @Override
+    public Order moveCandidate(Order incoming, long pickupAt, KitchenView kitchen) {
+        Order candidate = null;
+        if (kitchen.hasRoom(KitchenManager.IN_HEATER)) {
+            candidate = kitchen.stalestOnShelf(Temperature.HOT).orElse(null);
+        }
+        if (candidate == null && kitchen.hasRoom(KitchenManager.IN_COOLER)) {
+            candidate = kitchen.stalestOnShelf(Temperature.COLD).orElse(null);
+        }
+        return candidate;
+    }
+
+    @Override
+    public Order discardVictim(Order incoming, long pickupAt, KitchenView kitchen) {
+        return kitchen.stalestOnShelf().orElse(null);
+    }
+}
@@ -0,0 +1,156 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ObjLongConsumer;
+
+/*
+    Overflow shelf that indexes its orders by expiry instead of static freshness. An order whose ideal
+    temperature differs from the shelf's decays SHELF_DECAY_RATE times faster, so its expiry is
+    placement time + freshness / SHELF_DECAY_RATE. The stalest order is the discard victim.
+
+    Orders are kept in one expiry heap per ideal temperature, indexed by the Temperature ordinal, so the
+    best hot or cold order to move off the shelf is a heap peek, and the overall stalest order is the least
+    of the three heap tops. Heaps are keyed by order id, so a second order with an id already on the shelf
+    is rejected; removeOrder(Order) goes straight to the right heap, while the id-only methods try each of
+    the three.
+ */
+public class FreshnessShelfStorage implements Storage {
+    static final int SHELF_DECAY_RATE = 2;
+
+    private final String name;
+    private final Temperature temperature;
+    private final int capacity;
+    private final Clock clock;
+    private final ExpiryHeap[] orders;
+    private int size;
+
+    public FreshnessShelfStorage(String name, String temperature, int capacity, Clock clock) {
+        this.name = name;
+        this.temperature = Temperature.parse(temperature);
+        this.capacity = capacity;
+        this.clock = clock;
+        this.orders = new ExpiryHeap[Temperature.values().length];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new ExpiryHeap(capacity);
+        }
+    }
+
+    @Override
+    public synchronized boolean addOrder(Order order) {
+        return add(order, expiryOf(order));
+    }
+
+    @Override
+    public synchronized boolean removeOrder(Order order) {
+        if (orders[order.getTemperature().ordinal()].remove(order.getId()) == null) return false;
+        size--;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean removeOrderById(String id) {
+        for (ExpiryHeap heap : orders) {
+            if (heap.remove(id) != null) {
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized Optional<Order> getOrderById(String id) {
+        for (ExpiryHeap heap : orders) {
+            Order order = heap.get(id);
+            if (order != null) return Optional.of(order);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public synchronized List<Order> getAllOrders() {
+        List<Order> all = new ArrayList<>(size);
+        for (ExpiryHeap heap : orders) {
+            all.addAll(heap.values());
+        }
+        return all;
+    }
+
+    @Override
+    public synchronized boolean isFull() {
+        return size >= capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /*
+        Order that expires first, i.e. the one with the least remaining freshness.
+     */
+    public synchronized Optional<Order> getStalestOrder() {
+        ExpiryHeap stalest = orders[0];
+        for (ExpiryHeap heap : orders) {
+            if (heap.peekExpiry() < stalest.peekExpiry()) stalest = heap;
+        }
+        return Optional.ofNullable(stalest.peek());
+    }
+
+    /*
+        Order with the given ideal temperature that expires first: the one that gains most from being moved
+        to its ideal storage.
+     */
+    public synchronized Optional<Order> getStalestOrder(Temperature temperature) {
+        return Optional.ofNullable(orders[temperature.ordinal()].peek());
+    }
+
+    public synchronized boolean hasOrders(Temperature temperature) {
+        return orders[temperature.ordinal()].size() > 0;
+    }
+
+    /*
+        Puts an order back with a known expiry, e.g. when rebuilding the shelf from a journal.
+     */
+    synchronized boolean restore(Order order, long expiryMicros) {
+        return add(order, expiryMicros);
+    }
+
+    synchronized void forEachOrder(ObjLongConsumer<Order> visitor) {
+        for (ExpiryHeap heap : orders) {
+            for (Order order : heap.values()) {
+                visitor.accept(order, heap.expiryOf(order.getId()));
+            }
+        }
+    }
+
+    private boolean add(Order order, long expiryMicros) {
+        if (size >= capacity || contains(order.getId())) return false;
+        orders[order.getTemperature().ordinal()].add(order, expiryMicros);
+        size++;
+        return true;
+    }
+
+    private boolean contains(String id) {
+        for (ExpiryHeap heap : orders) {
+            if (heap.get(id) != null) return true;
+        }
+        return false;
+    }
+
+    private long expiryOf(Order order) {
+        long placedAt = ChronoUnit.MICROS.between(Instant.EPOCH, clock.instant());
+        long freshnessMicros = order.getFreshness() * 1_000_000L;
+        if (order.getTemperature() != temperature) {
+            freshnessMicros /= SHELF_DECAY_RATE;
+        }
+        return placedAt + freshnessMicros;
+    }
+}
@@ -0,0 +1,209 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+    Single-writer front end for a KitchenManager. Any number of producer threads publish place and pickup
+    commands into a preallocated ring buffer; one dedicated kitchen thread applies them in publication order,
+    so the manager and its action log are only ever touched by that thread. The manager still takes its own
+    monitors, but they are never contended, so each acquisition is cheap.
+
+    Commands are applied, and their actions stamped by the kitchen's clock, when the kitchen thread gets to
+    them. A caller driving a virtual clock must join each returned future before advancing the clock, or the
+    kitchen reads whatever time the clock has reached by then.
+ */
+public class KitchenEventLoop implements AutoCloseable {
+    private static final int PLACE = 1;
+    private static final int PICKUP = 2;
+    private static final int STOP = 3;
+    private static final int REAP = 4;
+    private static final int SPINS_BEFORE_PARK = 200;
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final KitchenManager kitchen;
+    private final Command[] ring;
+    private final AtomicLongArray published;
+    private final int mask;
+    // Next sequence to claim, with the CLOSED bit set once STOP has been claimed
+    private final AtomicLong claimed = new AtomicLong();
+    private final Thread thread;
+    private volatile long consumed;
+    private volatile boolean sleeping;
+
+    private static final class Command {
+        int type;
+        Order order;
+        String id;
+        int limit;
+        Duration delay;
+        CompletableFuture<Boolean> result;
+    }
+
+    public KitchenEventLoop(KitchenManager kitchen, int bufferSize) {
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of two: " + bufferSize);
+        }
+        this.kitchen = kitchen;
+        this.ring = new Command[bufferSize];
+        this.published = new AtomicLongArray(bufferSize);
+        this.mask = bufferSize - 1;
+        for (int i = 0; i < bufferSize; i++) {
+            ring[i] = new Command();
+            published.set(i, -1);
+        }
+        this.thread = new Thread(this::loop, "kitchen-event-loop");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /*
+        Completes with true once the order is on a storage (possibly after a move or discard), or false if the
+        kitchen turned it away: an order with its id is already there.
+     */
+    public CompletableFuture<Boolean> placeOrder(Order order) {
+        return publish(PLACE, order, null);
+    }
+
+    /*
+        As placeOrder, telling the kitchen the order's courier is expected after pickupDelay.
+     */
+    public CompletableFuture<Boolean> placeOrder(Order order, Duration pickupDelay) {
+        return publish(PLACE, order, null, 0, pickupDelay);
+    }
+
+    /*
+        Completes with true if the order was still in the kitchen and has been picked up.
+     */
+    public CompletableFuture<Boolean> pickupOrder(String id) {
+        return publish(PICKUP, null, id);
+    }
+
+    /*
+        Completes with true if any expired orders were discarded; at most maxBatch are, so a reap never holds
+        up the commands queued behind it for long.
+     */
+    public CompletableFuture<Boolean> reapExpired(int maxBatch) {
+        return publish(REAP, null, null, maxBatch);
+    }
+
+    /*
+        Applies every command published so far, then stops the kitchen thread. Commands published after
+        close are rejected with IllegalStateException.
+     */
+    @Override
+    public void close() {
+        try {
+            publish(STOP, null, null).join();
+        } catch (IllegalStateException e) {
+            // Already closed or closing; just wait for the kitchen thread
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Boolean> publish(int type, Order order, String id) {
+        return publish(type, order, id, 0);
+    }
+
+    private CompletableFuture<Boolean> publish(int type, Order order, String id, int limit) {
+        return publish(type, order, id, limit, null);
+    }
+
+    private CompletableFuture<Boolean> publish(int type, Order order, String id, int limit, Duration delay) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        long seq = claim(type == STOP);
+        while (seq - consumed >= ring.length) {
+            // Ring is full: wait for the kitchen thread to catch up
+            Thread.onSpinWait();
+        }
+        int slot = (int) (seq & mask);
+        Command command = ring[slot];
+        command.type = type;
+        command.order = order;
+        command.id = id;
+        command.limit = limit;
+        command.delay = delay;
+        command.result = result;
+        published.set(slot, seq);
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+        return result;
+    }
+
+    /*
+        Claims the next sequence. Claiming STOP also sets the CLOSED bit, so every command claimed before it
+        is applied and nothing can be claimed after it: a late publish fails instead of waiting forever for a
+        kitchen thread that has exited.
+     */
+    private long claim(boolean stop) {
+        while (true) {
+            long current = claimed.get();
+            if ((current & CLOSED) != 0) {
+                throw new IllegalStateException("kitchen event loop is closed");
+            }
+            if (claimed.compareAndSet(current, stop ? (current + 1) | CLOSED : current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    private void loop() {
+        long next = 0;
+        int idle = 0;
+        while (true) {
+            int slot = (int) (next & mask);
+            if (published.get(slot) != next) {
+                if (++idle < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    sleeping = true;
+                    if (published.get(slot) != next) {
+                        LockSupport.parkNanos(this, 1_000_000L);
+                    }
+                    sleeping = false;
+                }
+                continue;
+            }
+            idle = 0;
+
+            Command command = ring[slot];
+            int type = command.type;
+            Order order = command.order;
+            String id = command.id;
+            int limit = command.limit;
+            Duration delay = command.delay;
+            CompletableFuture<Boolean> result = command.result;
+            command.order = null;
+            command.id = null;
+            command.delay = null;
+            command.result = null;
+            consumed = ++next;
+
+            if (type == STOP) {
+                result.complete(true);
+                return;
+            }
+            try {
+                if (type == PLACE) {
+                    result.complete(delay != null ? kitchen.placeOrder(order, delay) : kitchen.placeOrder(order));
+                } else if (type == REAP) {
+                    result.complete(kitchen.reapExpired(limit) > 0);
+                } else {
+                    result.complete(kitchen.pickupOrder(id));
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
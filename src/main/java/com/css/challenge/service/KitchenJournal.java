@@ -0,0 +1,465 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Order;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/*
+    Append-only write-ahead journal of kitchen actions in memory-mapped segment files. Every action is
+    copied into the mapped segment under a short lock, so it survives a process crash as soon as append
+    returns; a background flusher forces dirty segments to disk every flush interval (group commit), so
+    the hot path never waits for an fsync. sync() forces immediately when a caller needs a hard guarantee.
+
+    Each record is [int length][int crc32][payload] and a zero length marks the end of the log, so a
+    torn tail left by a crash is detected and ignored on reopen. Segments are named by the global
+    position of their first byte. Every snapshotEvery records the kitchen writes a compact snapshot of
+    its current contents and recent discards, tagged with the journal position it claimed before
+    reading them; recovery loads the latest valid snapshot and replays only the records after it.
+    Actions running concurrently with the snapshot may already show in it while their records come
+    after its position, so replay must tolerate records the snapshot already reflects. Segments are kept
+    as the audit trail unless retainSegments is off, in which case segments wholly before the previous
+    snapshot are deleted.
+ */
+public class KitchenJournal implements AutoCloseable {
+    public static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(50);
+    public static final int DEFAULT_SNAPSHOT_EVERY = 10_000;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int NEXT_SEGMENT = -1;
+    private static final int SNAPSHOT_MAGIC = 0x434b534e; // "CKSN"
+    private static final int SNAPSHOTS_KEPT = 2;
+    private static final int TAIL_CLEARED_BYTES = 64 << 10;
+
+    /*
+        Receives the journal contents on recovery: first the snapshot, then every later record in order.
+        Records after the snapshot may repeat changes it already holds, so applying them must be idempotent
+        by order id.
+     */
+    interface Replay {
+        void restore(Order order, byte location, long expiryMicros);
+        void discarded(String id);
+        void place(long timestamp, Order order, byte location);
+        void move(long timestamp, String id, byte location);
+        void remove(long timestamp, String id, ActionType type);
+    }
+
+    /*
+        One order in a snapshot: where it is and, on the shelf, when it expires.
+     */
+    record Entry(Order order, byte location, long expiryMicros) {}
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int snapshotEvery;
+    private final boolean retainSegments;
+    private final ScheduledExecutorService flusher;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer scratch = ByteBuffer.allocate(256);
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentBase;
+    private long sinceSnapshot;
+    private volatile boolean dirty;
+
+    public KitchenJournal(Path dir) throws IOException {
+        this(dir, DEFAULT_SEGMENT_BYTES, DEFAULT_FLUSH_INTERVAL, DEFAULT_SNAPSHOT_EVERY, true);
+    }
+
+    public KitchenJournal(Path dir, int segmentBytes, Duration flushInterval, int snapshotEvery,
+                          boolean retainSegments) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.snapshotEvery = snapshotEvery;
+        this.retainSegments = retainSegments;
+        Files.createDirectories(dir);
+
+        List<Long> bases = segmentBases();
+        if (bases.isEmpty()) {
+            openSegment(0);
+        } else {
+            // Earlier segments were complete when they were rolled, so only the last one needs a scan
+            openSegment(bases.get(bases.size() - 1));
+            int end = 0;
+            while (true) {
+                int length = recordLength(segment, end);
+                if (length <= 0 || !validRecord(segment, end, length)) break;
+                end += HEADER_BYTES + length;
+            }
+            // Clear what a torn write may have left after the last good record; checksums catch the rest
+            for (int i = end; i < Math.min(segment.capacity(), end + TAIL_CLEARED_BYTES); i++) {
+                segment.put(i, (byte) 0);
+            }
+            segment.position(end);
+        }
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flushIfDirty, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void appendPlace(long timestamp, Order order, byte location) {
+        byte[] id = utf8(order.getId());
+        byte[] name = utf8(order.getName());
+        byte[] temp = utf8(order.getTemp());
+        synchronized (this) {
+            ByteBuffer payload = begin(ActionType.PLACE, timestamp, location, id, 8 + name.length + temp.length);
+            putBytes(payload, name);
+            putBytes(payload, temp);
+            payload.putInt(order.getFreshness());
+            commit(payload);
+        }
+    }
+
+    public void append(long timestamp, String id, ActionType type, byte location) {
+        byte[] idBytes = utf8(id);
+        synchronized (this) {
+            commit(begin(type, timestamp, location, idBytes, 0));
+        }
+    }
+
+    /*
+        Once snapshotEvery records have been appended since the last snapshot, claims the next one for the
+        caller and returns the current journal position; -1 otherwise. The caller reads the kitchen only
+        after claiming, so every record before the position is reflected in what it reads.
+     */
+    synchronized long claimSnapshot() {
+        if (sinceSnapshot < snapshotEvery) return -1;
+        sinceSnapshot = 0;
+        return segmentBase + segment.position();
+    }
+
+    /*
+        Writes a snapshot of the kitchen, read after claiming the journal position. The file is written
+        aside, forced and atomically renamed into place, so a crash mid-snapshot leaves the previous one
+        intact. Only the current segment is read under the lock; encoding, writing and both forces run
+        outside it, so appends carry on meanwhile.
+     */
+    void writeSnapshot(long position, List<Entry> entries, List<String> discarded) {
+        MappedByteBuffer current;
+        synchronized (this) {
+            current = segment;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(64 + entries.size() * 96 + discarded.size() * 40);
+            buffer.putInt(SNAPSHOT_MAGIC).putLong(position).putInt(entries.size());
+            for (Entry entry : entries) {
+                byte[] id = utf8(entry.order().getId());
+                byte[] name = utf8(entry.order().getName());
+                byte[] temp = utf8(entry.order().getTemp());
+                buffer = ensure(buffer, 19 + id.length + name.length + temp.length);
+                putBytes(buffer, id);
+                putBytes(buffer, name);
+                putBytes(buffer, temp);
+                buffer.putInt(entry.order().getFreshness()).put(entry.location()).putLong(entry.expiryMicros());
+            }
+            buffer = ensure(buffer, 4);
+            buffer.putInt(discarded.size());
+            for (String id : discarded) {
+                byte[] bytes = utf8(id);
+                buffer = ensure(buffer, 2 + bytes.length);
+                putBytes(buffer, bytes);
+            }
+            buffer = ensure(buffer, 4);
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.array(), 0, buffer.position());
+            buffer.putInt((int) checksum.getValue());
+            buffer.flip();
+
+            Path tmp = dir.resolve(String.format("snapshot-%016d.tmp", position));
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            // The snapshot must never point past what is durable in the journal: earlier segments were forced
+            // when they were rolled, and the position is at most the end of the current one
+            current.force();
+            Files.move(tmp, dir.resolve(String.format("snapshot-%016d.bin", position)),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            pruneSnapshots();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+        Replays the latest valid snapshot and then every record after it.
+     */
+    void recover(Replay replay) throws IOException {
+        long from = 0;
+        List<Long> snapshots = snapshotPositions();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Snapshot snapshot = readSnapshot(snapshots.get(i));
+            if (snapshot != null) {
+                snapshot.discarded().forEach(replay::discarded);
+                snapshot.entries().forEach(entry -> replay.restore(entry.order(), entry.location(),
+                        entry.expiryMicros()));
+                from = snapshots.get(i);
+                break;
+            }
+        }
+        readRecords(from, (payload) -> {
+            ActionType type = ActionType.values()[payload.get()];
+            long timestamp = payload.getLong();
+            byte location = payload.get();
+            String id = getString(payload);
+            switch (type) {
+                case PLACE -> replay.place(timestamp, new Order(id, getString(payload), getString(payload),
+                        payload.getInt()), location);
+                case MOVE -> replay.move(timestamp, id, location);
+                default -> replay.remove(timestamp, id, type);
+            }
+        });
+    }
+
+    /*
+        Visits every retained action in journal order: the audit trail.
+     */
+    public void forEachAction(ActionLog.Visitor visitor) throws IOException {
+        readRecords(0, payload -> {
+            ActionType type = ActionType.values()[payload.get()];
+            long timestamp = payload.getLong();
+            payload.get();
+            visitor.visit(timestamp, getString(payload), type);
+        });
+    }
+
+    /*
+        Forces everything appended so far to disk.
+     */
+    public void sync() {
+        MappedByteBuffer current;
+        synchronized (this) {
+            dirty = false;
+            current = segment;
+        }
+        // msync outside the lock, so appends carry on while the pages are written back
+        current.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        synchronized (this) {
+            segment.force();
+            channel.close();
+        }
+    }
+
+    private void flushIfDirty() {
+        if (dirty) {
+            sync();
+        }
+    }
+
+    private ByteBuffer begin(ActionType type, long timestamp, byte location, byte[] id, int extra) {
+        int needed = 12 + id.length + extra;
+        if (scratch.capacity() < needed) {
+            scratch = ByteBuffer.allocate(Integer.highestOneBit(needed) << 1);
+        }
+        scratch.clear();
+        scratch.put((byte) type.ordinal()).putLong(timestamp).put(location);
+        putBytes(scratch, id);
+        return scratch;
+    }
+
+    private void commit(ByteBuffer payload) {
+        int length = payload.position();
+        if (HEADER_BYTES + length + 4 > segmentBytes) {
+            throw new IllegalArgumentException("record of " + length + " bytes does not fit a journal segment");
+        }
+        if (segment.remaining() < HEADER_BYTES + length + 4) {
+            roll();
+        }
+        crc.reset();
+        crc.update(payload.array(), 0, length);
+        int start = segment.position();
+        // Body and checksum first, length last: a reader never sees a length whose body is missing
+        segment.position(start + 4);
+        segment.putInt((int) crc.getValue());
+        segment.put(payload.array(), 0, length);
+        segment.putInt(start, length);
+        dirty = true;
+        sinceSnapshot++;
+    }
+
+    private void roll() {
+        if (segment.remaining() >= 4) {
+            segment.putInt(segment.position(), NEXT_SEGMENT);
+        }
+        long next = segmentBase + segmentBytes;
+        try {
+            segment.force();
+            channel.close();
+            openSegment(next);
+            if (!retainSegments) {
+                pruneSegments();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openSegment(long base) throws IOException {
+        channel = FileChannel.open(segmentPath(base), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segmentBase = base;
+    }
+
+    private interface RecordVisitor {
+        void visit(ByteBuffer payload);
+    }
+
+    private void readRecords(long from, RecordVisitor visitor) throws IOException {
+        for (long base : segmentBases()) {
+            if (base + segmentBytes <= from) continue;
+            try (FileChannel in = FileChannel.open(segmentPath(base), StandardOpenOption.READ)) {
+                MappedByteBuffer records = in.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(in.size(), segmentBytes));
+                int offset = (int) Math.max(0, from - base);
+                while (true) {
+                    // A roll marker, a too-short tail or the end of the log all end this segment
+                    int length = recordLength(records, offset);
+                    if (length <= 0 || !validRecord(records, offset, length)) break;
+                    visitor.visit(records.slice(offset + HEADER_BYTES, length));
+                    offset += HEADER_BYTES + length;
+                }
+            }
+        }
+    }
+
+    private static int recordLength(ByteBuffer records, int offset) {
+        return offset + HEADER_BYTES <= records.capacity() ? records.getInt(offset) : 0;
+    }
+
+    private static boolean validRecord(ByteBuffer records, int offset, int length) {
+        if (offset + HEADER_BYTES + length > records.capacity()) return false;
+        CRC32 checksum = new CRC32();
+        checksum.update(records.slice(offset + HEADER_BYTES, length));
+        return (int) checksum.getValue() == records.getInt(offset + 4);
+    }
+
+    private record Snapshot(List<Entry> entries, List<String> discarded) {}
+
+    private Snapshot readSnapshot(long position) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotPath(position)));
+            if (buffer.remaining() < 20 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.getLong() != position) {
+                return null;
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.array(), 0, buffer.capacity() - 4);
+            if ((int) checksum.getValue() != buffer.getInt(buffer.capacity() - 4)) return null;
+
+            int count = buffer.getInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Order order = new Order(getString(buffer), getString(buffer), getString(buffer), buffer.getInt());
+                entries.add(new Entry(order, buffer.get(), buffer.getLong()));
+            }
+            int discards = buffer.getInt();
+            List<String> discarded = new ArrayList<>(discards);
+            for (int i = 0; i < discards; i++) {
+                discarded.add(getString(buffer));
+            }
+            return new Snapshot(entries, discarded);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void pruneSnapshots() throws IOException {
+        List<Long> snapshots = snapshotPositions();
+        for (int i = 0; i < snapshots.size() - SNAPSHOTS_KEPT; i++) {
+            Files.deleteIfExists(snapshotPath(snapshots.get(i)));
+        }
+    }
+
+    /*
+        Deletes segments that end before the oldest kept snapshot, which recovery will never read again.
+     */
+    private void pruneSegments() throws IOException {
+        List<Long> snapshots = snapshotPositions();
+        if (snapshots.isEmpty()) return;
+        long oldest = snapshots.get(Math.max(0, snapshots.size() - SNAPSHOTS_KEPT));
+        for (long base : segmentBases()) {
+            if (base + segmentBytes <= oldest && base != segmentBase) {
+                Files.deleteIfExists(segmentPath(base));
+            }
+        }
+    }
+
+    private List<Long> segmentBases() throws IOException {
+        return positions("journal-", ".log");
+    }
+
+    private List<Long> snapshotPositions() throws IOException {
+        return positions("snapshot-", ".bin");
+    }
+
+    private List<Long> positions(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return dir.resolve(String.format("journal-%016d.log", base));
+    }
+
+    private Path snapshotPath(long position) {
+        return dir.resolve(String.format("snapshot-%016d.bin", position));
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xffff];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) return buffer;
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        return grown.put(buffer);
+    }
+}
@@ -1,110 +1,674 @@
 package com.css.challenge.service;
 
 import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
 import com.css.challenge.client.ActionType;
 import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.metrics.KitchenMetrics;
 
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.ObjLongConsumer;
 
 public class KitchenManager {
-    private final TemperatureStorage heater = new TemperatureStorage("Heater", "hot", 6);
-    private final TemperatureStorage cooler = new TemperatureStorage("Cooler", "cold", 6);
-    private final TemperatureStorage shelf = new TemperatureStorage("Shelf", "room", 12);
+    public static final int HEATER_CAPACITY = 6;
+    public static final int COOLER_CAPACITY = 6;
+    public static final int SHELF_CAPACITY = 12;
+    static final int TOMBSTONES = 4096;
 
-    private final List<Action> actionLog;
+    public static final byte IN_HEATER = 0;
+    public static final byte IN_COOLER = 1;
+    public static final byte IN_SHELF = 2;
+
+    private final AtomicCapacityStorage heater;
+    private final AtomicCapacityStorage cooler;
+    private final FreshnessShelfStorage shelf;
+    private final Storage[] storages;
+    private final int[] locationCapacity;
+
+    // Where each order in the kitchen currently is, so a pickup is a single lookup
+    private final OrderIndex locations;
+    // Kitchen-wide expiry of every order, whichever storage it is in; guarded by its own monitor
+    private final ExpiryHeap expiries;
+    // Expected pickup of every order placed with a pickup delay, keyed like expiries and guarded by its monitor
+    private final ExpiryHeap pickups;
+    private final DiscardTombstones discarded = new DiscardTombstones(TOMBSTONES);
+    // Orders the action log: an action reads the clock and is appended under it, and a batch holds it from
+    // reading the clock to its flush, so no action is logged between a batch's timestamp and its actions.
+    // Taken before the index and expiry locks, never while holding them.
+    private final Object logOrder = new Object();
+
+    private final ActionLog actionLog;
+    private final Clock clock;
+    private final KitchenMetrics metrics;
+    private KitchenJournal journal;
+    private PlacementPolicy policy = new FreshnessPolicy();
+    private final View view = new View();
 
     public KitchenManager(List<Action> actionLog) {
+        this(ActionLog.of(actionLog), Clock.systemUTC());
+    }
+
+    public KitchenManager(List<Action> actionLog, Clock clock) {
+        this(ActionLog.of(actionLog), clock);
+    }
+
+    /*
+        The clock stamps every logged action; simulations pass a virtual clock to replay in accelerated time.
+     */
+    public KitchenManager(ActionLog actionLog, Clock clock) {
+        this(actionLog, clock, new KitchenMetrics());
+    }
+
+    public KitchenManager(ActionLog actionLog, Clock clock, KitchenMetrics metrics) {
+        this(actionLog, clock, HEATER_CAPACITY, COOLER_CAPACITY, SHELF_CAPACITY, metrics);
+    }
+
+    public KitchenManager(ActionLog actionLog, Clock clock, int heaterCapacity, int coolerCapacity, int shelfCapacity) {
+        this(actionLog, clock, heaterCapacity, coolerCapacity, shelfCapacity, new KitchenMetrics());
+    }
+
+    public KitchenManager(ActionLog actionLog, Clock clock, int heaterCapacity, int coolerCapacity, int shelfCapacity,
+                          KitchenMetrics metrics) {
+        this(actionLog, clock, heaterCapacity, coolerCapacity, shelfCapacity, metrics, null);
+    }
+
+    /*
+        With a journal, every action is also written ahead to it so the kitchen can be recovered after a crash.
+     */
+    public KitchenManager(ActionLog actionLog, Clock clock, int heaterCapacity, int coolerCapacity, int shelfCapacity,
+                          KitchenMetrics metrics, KitchenJournal journal) {
         this.actionLog = actionLog;
+        this.journal = journal;
+        this.clock = clock;
+        this.metrics = metrics;
+        this.heater = new AtomicCapacityStorage("Heater", "hot", heaterCapacity);
+        this.cooler = new AtomicCapacityStorage("Cooler", "cold", coolerCapacity);
+        this.shelf = new FreshnessShelfStorage("Shelf", "room", shelfCapacity, clock);
+        this.storages = new Storage[] {heater, cooler, shelf};
+        this.locationCapacity = new int[] {heaterCapacity, coolerCapacity, shelfCapacity};
+        this.locations = new OrderIndex(heaterCapacity + coolerCapacity + shelfCapacity);
+        this.expiries = new ExpiryHeap(heaterCapacity + coolerCapacity + shelfCapacity);
+        this.pickups = new ExpiryHeap(heaterCapacity + coolerCapacity + shelfCapacity);
+        metrics.registerOccupancy("heater", heater::size);
+        metrics.registerOccupancy("cooler", cooler::size);
+        metrics.registerOccupancy("shelf", shelf::size);
     }
 
-    public void placeOrder(Order order) {
+    public KitchenMetrics getMetrics() {
+        return metrics;
+    }
+
+    /*
+        The policy choosing which shelf order to move or discard when an order fits nowhere; FreshnessPolicy
+        by default.
+     */
+    public void setPolicy(PlacementPolicy policy) {
+        this.policy = policy;
+    }
+
+    /*
+        Returns true if the order was placed on a storage; false if an order with its id is already in the
+        kitchen, or if a concurrent placement took the slot made for it.
+     */
+    public boolean placeOrder(Order order) {
+        return placeOrder(order, Long.MAX_VALUE);
+    }
+
+    /*
+        Places an order whose courier is expected after pickupDelay, so deadline-aware policies can use it.
+     */
+    public boolean placeOrder(Order order, Duration pickupDelay) {
+        return placeOrder(order, nowMicros() + pickupDelay.toNanos() / 1_000);
+    }
+
+    private boolean placeOrder(Order order, long pickupAt) {
+        long start = System.nanoTime();
+        try {
+            return place(order, pickupAt, null);
+        } finally {
+            metrics.recordPlaceLatency(System.nanoTime() - start);
+        }
+    }
+
+    /*
+        Places a group of orders that arrived in the same tick, with the same results as placing them one by
+        one in iteration order. The batch reads the clock once, so all its actions share a timestamp, and
+        appends them to the action log in one call; actions of other threads are logged before or after the
+        whole batch, never between its timestamp and its append.
+     */
+    public void placeOrders(Collection<Order> orders) {
+        placeOrders(orders, null);
+    }
+
+    /*
+        As placeOrders, telling the kitchen when each order's courier is expected: pickupDelays.get(i) is
+        the delay of the i-th order.
+     */
+    public void placeOrders(Collection<Order> orders, List<Duration> pickupDelays) {
+        if (pickupDelays != null && pickupDelays.size() != orders.size()) {
+            throw new IllegalArgumentException("expected " + orders.size() + " pickup delays, got "
+                    + pickupDelays.size());
+        }
+        if (orders.isEmpty()) return;
+        long start = System.nanoTime();
+        try {
+            synchronized (logOrder) {
+                Batch batch = new Batch(nowMicros(), orders.size());
+                try {
+                    int i = 0;
+                    for (Order order : orders) {
+                        long pickupAt = pickupDelays == null ? Long.MAX_VALUE
+                                : batch.timestamp + pickupDelays.get(i).toNanos() / 1_000;
+                        place(order, pickupAt, batch);
+                        i++;
+                    }
+                } finally {
+                    batch.flush();
+                }
+            }
+        } finally {
+            long perOrder = (System.nanoTime() - start) / orders.size();
+            for (int i = 0; i < orders.size(); i++) {
+                metrics.recordPlaceLatency(perOrder);
+            }
+        }
+    }
+
+    private boolean place(Order order, long pickupAt, Batch batch) {
+        // Claim the id before touching any storage, so a second order with the same id is turned away whole
+        if (!locations.admit(order)) return false;
+        if (pickupAt != Long.MAX_VALUE) {
+            synchronized (expiries) {
+                pickups.add(order, pickupAt);
+            }
+        }
 
         // Step1: Place order in hot/cold shelves based on the temperature and capacity
-        if (tryHotOrColdShelf(order)) {
-            logAction(order.getId(), ActionType.PLACE);
-            return;
+        byte target = tryHotOrColdShelf(order);
+        if (target >= 0) {
+            locations.put(order, target);
+            logAction(order, target, ActionType.PLACE, batch);
+            return true;
+        }
+        if (DecisionTrace.ENABLED && order.getTemperature() != Temperature.ROOM) {
+            DecisionTrace.record(DecisionTrace.Event.IDEAL_FULL, order.getHandle(),
+                    isHot(order) ? IN_HEATER : IN_COOLER);
         }
         // Step2: Place in overflow shelf if hot/cold shelves are at capacity & overflow shelf is not full
         if (!shelf.isFull()) {
             if (shelf.addOrder(order)) {
-                logAction(order.getId(), ActionType.PLACE);
-                return;
+                locations.put(order, IN_SHELF);
+                logAction(order, IN_SHELF, ActionType.PLACE, batch);
+                return true;
             }
         }
 
-        // Step3:Move a hot/cold order from shelf to make space
-        List<Order> shelfOrders = shelf.getAllOrders();
-        for (Order existingOrder : shelfOrders) {
-            System.out.println("Trying to move: " + existingOrder.getId() + " (" + existingOrder.getTemp() + ")");
+        if (DecisionTrace.ENABLED) {
+            DecisionTrace.record(DecisionTrace.Event.SHELF_FULL, order.getHandle());
+        }
 
-            // Check heater/cooler capacity and based on that try to move hot order or cold order
-            boolean moved = false;
-            if (isHot(existingOrder) && !heater.isFull()) {
-                moved = moveAndPlaceOrder(existingOrder, heater, order);
-            } else if (isCold(existingOrder) && !cooler.isFull()) {
-                moved = moveAndPlaceOrder(existingOrder, cooler, order);
+        // Step3: Move a hot/cold shelf order of the policy's choosing into heater/cooler to make space
+        Order toMove = policy.moveCandidate(order, pickupAt, view);
+        if (toMove != null && toMove.getTemperature() != Temperature.ROOM) {
+            byte moveTarget = isHot(toMove) ? IN_HEATER : IN_COOLER;
+            metrics.recordMoveAttempt();
+            if (DecisionTrace.ENABLED) {
+                DecisionTrace.record(DecisionTrace.Event.MOVE_CANDIDATE, order.getHandle(), toMove.getHandle(),
+                        moveTarget, traceReason());
             }
 
-            // If move successful, try placing new order in shelf
-            if (moved) return;
+            // If move successful, the new order takes the freed shelf slot
+            if (moveFromShelf(toMove, moveTarget, batch)) return placeOnShelf(order, batch);
+            if (DecisionTrace.ENABLED) {
+                DecisionTrace.record(DecisionTrace.Event.MOVE_FAILED, order.getHandle(), toMove.getHandle(),
+                        moveTarget, DecisionTrace.Reason.NONE);
+            }
         }
 
-        // Step4: Discard least fresh order from shelf
-        Optional<Order> toDiscard = shelf.getAllOrders().stream()
-                .min(Comparator.comparingInt(Order::getFreshness));
+        // Step4: Discard the policy's victim, or the shelf order with the least remaining freshness
+        Order toDiscard = policy.discardVictim(order, pickupAt, view);
+        DecisionTrace.Reason reason = traceReason();
+        if (toDiscard == null || !shelf.removeOrder(toDiscard)) {
+            toDiscard = shelf.getStalestOrder().orElse(null);
+            reason = DecisionTrace.Reason.STALEST;
+            if (toDiscard == null || !shelf.removeOrder(toDiscard)) {
+                // A concurrent pickup emptied the slot the policy meant to free
+                return placeOnShelf(order, batch);
+            }
+        }
+        if (DecisionTrace.ENABLED) {
+            DecisionTrace.record(DecisionTrace.Event.DISCARD_VICTIM, order.getHandle(), toDiscard.getHandle(),
+                    IN_SHELF, reason);
+        }
+        locations.remove(toDiscard.getId());
+        discarded.add(toDiscard.getId());
+        logAction(toDiscard, IN_SHELF, ActionType.DISCARD, batch);
+        return placeOnShelf(order, batch);
+    }
 
-        toDiscard.ifPresent(o -> {
-            shelf.removeOrderById(o.getId());
-            logAction(o.getId(), ActionType.DISCARD);
-            shelf.addOrder(order);
-            logAction(order.getId(), ActionType.PLACE);
-        });
+    /*
+        Puts an admitted order on the shelf, or releases its id if a concurrent placement took the slot.
+     */
+    private boolean placeOnShelf(Order order, Batch batch) {
+        if (shelf.addOrder(order)) {
+            locations.put(order, IN_SHELF);
+            logAction(order, IN_SHELF, ActionType.PLACE, batch);
+            return true;
+        }
+        locations.remove(order.getId());
+        synchronized (expiries) {
+            pickups.remove(order.getId());
+        }
+        return false;
     }
 
-    private boolean moveAndPlaceOrder(Order toMoveOrder, Storage target, Order newOrder) {
-        shelf.removeOrderById(toMoveOrder.getId());
+    private DecisionTrace.Reason traceReason() {
+        return policy instanceof FreshnessPolicy ? DecisionTrace.Reason.STALEST : DecisionTrace.Reason.POLICY;
+    }
 
-        if (!target.addOrder(toMoveOrder)) {
+    /*
+        True if placeOrder would have to discard an order to make room for this one.
+     */
+    public boolean wouldDiscard(Order order) {
+        if ((isHot(order) && !heater.isFull()) || (isCold(order) && !cooler.isFull()) || !shelf.isFull()) {
             return false;
         }
+        return !(!heater.isFull() && shelf.hasOrders(Temperature.HOT))
+                && !(!cooler.isFull() && shelf.hasOrders(Temperature.COLD));
+    }
 
-        logAction(toMoveOrder.getId(), ActionType.MOVE);
-        if (shelf.addOrder(newOrder)) {
-            logAction(newOrder.getId(), ActionType.PLACE);
+    private boolean moveFromShelf(Order toMoveOrder, byte target, Batch batch) {
+        // Transfer and re-index under the index lock, so a pickup never finds the order in neither storage
+        synchronized (locations) {
+            if (!((AtomicCapacityStorage) storages[target]).moveFrom(shelf, toMoveOrder)) {
+                return false;
+            }
+            locations.put(toMoveOrder, target);
         }
+        logAction(toMoveOrder, target, ActionType.MOVE, batch);
         return true;
     }
 
-    private boolean tryHotOrColdShelf(Order order) {
+    private byte tryHotOrColdShelf(Order order) {
         if (isHot(order) && !heater.isFull()) {
-            return heater.addOrder(order);
+            return heater.addOrder(order) ? IN_HEATER : -1;
         }
         if (isCold(order) && !cooler.isFull()) {
-            return cooler.addOrder(order);
+            return cooler.addOrder(order) ? IN_COOLER : -1;
         }
-        return false;
+        return -1;
     }
 
     private static boolean isHot(Order order) {
-        return order.getTemp().equalsIgnoreCase("hot");
+        return order.getTemperature() == Temperature.HOT;
     }
 
     private static boolean isCold(Order existingOrder) {
-        return existingOrder.getTemp().equalsIgnoreCase("cold");
+        return existingOrder.getTemperature() == Temperature.COLD;
     }
 
-    public void pickupOrder(String id) {
-        boolean found = heater.removeOrderById(id) || cooler.removeOrderById(id) || shelf.removeOrderById(id);
+    public boolean pickupOrder(String id) {
+        long start = System.nanoTime();
+        byte location;
+        Order order;
+        synchronized (locations) {
+            location = locations.locationOf(id);
+            order = take(id, location);
+        }
+        boolean found = pickedUp(id, order, location, null);
+        metrics.recordPickupLatency(System.nanoTime() - start);
+        return found;
+    }
+
+    /*
+        Picks up a group of orders whose couriers arrived in the same tick, with the same results as picking
+        them up one by one in iteration order: found[i] is whether the i-th was picked up. Every order is
+        looked up and unindexed under a single lock, the clock is read once and the pickups are appended to
+        the action log in one call.
+     */
+    public boolean[] pickupOrders(Collection<String> ids) {
+        boolean[] found = new boolean[ids.size()];
+        if (ids.isEmpty()) return found;
+        long start = System.nanoTime();
+        Order[] orders = new Order[ids.size()];
+        byte[] from = new byte[ids.size()];
+        synchronized (locations) {
+            int i = 0;
+            for (String id : ids) {
+                from[i] = locations.locationOf(id);
+                orders[i++] = take(id, from[i - 1]);
+            }
+        }
+        try {
+            synchronized (logOrder) {
+                Batch batch = new Batch(nowMicros(), ids.size());
+                try {
+                    int i = 0;
+                    for (String id : ids) {
+                        found[i] = pickedUp(id, orders[i], from[i], batch);
+                        i++;
+                    }
+                } finally {
+                    batch.flush();
+                }
+            }
+        } finally {
+            long perOrder = (System.nanoTime() - start) / ids.size();
+            for (int i = 0; i < ids.size(); i++) {
+                metrics.recordPickupLatency(perOrder);
+            }
+        }
+        return found;
+    }
+
+    /*
+        Unindexes the order and takes it off its storage; null if it was not in the kitchen or is still being
+        placed. Callers hold the index lock, which moves also hold from taking an order off the shelf until it
+        is re-indexed, so the order is always in the storage the index names.
+     */
+    private Order take(String id, byte location) {
+        if (location == OrderIndex.PENDING) return null;
+        Order order = locations.remove(id);
+        return order != null && storages[location].removeOrder(order) ? order : null;
+    }
+
+    /*
+        Records the outcome of a pickup; order is what take returned.
+     */
+    private boolean pickedUp(String id, Order order, byte location, Batch batch) {
+        boolean found = order != null;
         if (found) {
-            logAction(id, ActionType.PICKUP);
+            logAction(order, location, ActionType.PICKUP, batch);
+            if (DecisionTrace.ENABLED) {
+                DecisionTrace.record(DecisionTrace.Event.PICKED_UP, order.getHandle(), location);
+            }
+        } else if (discarded.contains(id)) {
+            metrics.recordDiscardedPickup();
+        } else {
+            metrics.recordPickupMiss();
+        }
+        return found;
+    }
+
+    /*
+        Records an action in the metrics, the action log and, if the kitchen is journaled, the journal. The
+        location is where the order is after a place or move, and where it was taken from otherwise. Within
+        a batch, the action takes the batch's timestamp and waits in it for the bulk append.
+     */
+    private void logAction(Order order, byte location, ActionType actionType, Batch batch) {
+        metrics.recordAction(actionType);
+        long snapshotAt = -1;
+        synchronized (logOrder) {
+            long timestamp;
+            if (batch != null) {
+                timestamp = batch.timestamp;
+                batch.add(order.getId(), actionType);
+            } else {
+                timestamp = nowMicros();
+                actionLog.append(timestamp, order.getId(), actionType);
+            }
+            trackExpiry(order, location, actionType, timestamp);
+            if (journal != null) {
+                if (actionType == ActionType.PLACE) {
+                    journal.appendPlace(timestamp, order, location);
+                } else {
+                    journal.append(timestamp, order.getId(), actionType, location);
+                }
+                snapshotAt = journal.claimSnapshot();
+            }
+        }
+        // Reading the kitchen and writing the file can take a while; other actions need not wait for it
+        if (snapshotAt >= 0) {
+            journal.writeSnapshot(snapshotAt, snapshot(), discarded.snapshot());
+        }
+    }
+
+    /*
+        Keeps the kitchen-wide expiry index in step with an action. Expiry is when the order's remaining
+        freshness runs out at the decay rate of the storage it is in, so a move re-keys it at the new rate.
+     */
+    private void trackExpiry(Order order, byte location, ActionType actionType, long timestamp) {
+        synchronized (expiries) {
+            switch (actionType) {
+                case PLACE -> expiries.add(order, timestamp
+                        + order.getFreshness() * 1_000_000L / decayRate(order, location));
+                case MOVE -> {
+                    long remaining = Math.max(expiries.expiryOf(order.getId()) - timestamp, 0)
+                            * decayRate(order, IN_SHELF);
+                    expiries.updateExpiry(order.getId(), timestamp + remaining / decayRate(order, location));
+                }
+                default -> {
+                    expiries.remove(order.getId());
+                    pickups.remove(order.getId());
+                }
+            }
         }
     }
 
-    private void logAction(String orderId, ActionType actionType) {
-        actionLog.add(new Action(Instant.now(), orderId, actionType));
+    private static int decayRate(Order order, byte location) {
+        return location == IN_SHELF && order.getTemperature() != Temperature.ROOM
+                ? FreshnessShelfStorage.SHELF_DECAY_RATE : 1;
+    }
+
+    /*
+        Discards up to maxBatch orders whose freshness has run out, soonest-expired first, logging a DISCARD
+        for each, so dead orders stop holding slots. Only expired orders are visited: O(expired log n).
+        Returns how many were discarded.
+     */
+    public int reapExpired(int maxBatch) {
+        long nowMicros = nowMicros();
+        int reaped = 0;
+        while (reaped < maxBatch) {
+            Order order;
+            synchronized (expiries) {
+                if (expiries.peekExpiry() > nowMicros) break;
+                order = expiries.peek();
+            }
+            // Unindex and take it off its storage in one step under the index lock, as a pickup does, so a
+            // concurrent move can never leave it in a storage with no index entry
+            byte location;
+            Order taken;
+            synchronized (locations) {
+                location = locations.locationOf(order.getId());
+                taken = take(order.getId(), location);
+            }
+            if (taken != null) {
+                if (DecisionTrace.ENABLED) {
+                    DecisionTrace.record(DecisionTrace.Event.DISCARD_VICTIM, order.getHandle(), order.getHandle(),
+                            location, DecisionTrace.Reason.EXPIRED);
+                }
+                discarded.add(order.getId());
+                logAction(order, location, ActionType.DISCARD, null);
+                reaped++;
+            } else {
+                // Already taken by a concurrent pickup or discard, which also drops its expiry
+                synchronized (expiries) {
+                    expiries.remove(order.getId());
+                }
+            }
+        }
+        return reaped;
+    }
+
+    /*
+        Actions of one placeOrders or pickupOrders call, all stamped with the time the batch started.
+     */
+    private final class Batch {
+        final long timestamp;
+        String[] ids;
+        ActionType[] types;
+        int size;
+
+        Batch(long timestamp, int expected) {
+            this.timestamp = timestamp;
+            // Most orders log one action; overflowing ones also log a move or discard
+            this.ids = new String[expected + 4];
+            this.types = new ActionType[expected + 4];
+        }
+
+        void add(String id, ActionType type) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                types = Arrays.copyOf(types, size * 2);
+            }
+            ids[size] = id;
+            types[size++] = type;
+        }
+
+        void flush() {
+            if (size > 0) actionLog.appendAll(timestamp, ids, types, size);
+            size = 0;
+        }
+    }
+
+    private long nowMicros() {
+        Instant now = clock.instant();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    /*
+        What placement policies see of this kitchen.
+     */
+    private class View implements KitchenView {
+        @Override
+        public long now() {
+            return nowMicros();
+        }
+
+        @Override
+        public int size(byte location) {
+            return switch (location) {
+                case IN_HEATER -> heater.size();
+                case IN_COOLER -> cooler.size();
+                default -> shelf.size();
+            };
+        }
+
+        @Override
+        public int capacity(byte location) {
+            return locationCapacity[location];
+        }
+
+        @Override
+        public boolean hasRoom(byte location) {
+            return !storages[location].isFull();
+        }
+
+        @Override
+        public void forEachOnShelf(ObjLongConsumer<Order> visitor) {
+            shelf.forEachOrder(visitor);
+        }
+
+        @Override
+        public Optional<Order> stalestOnShelf(Temperature temperature) {
+            return shelf.getStalestOrder(temperature);
+        }
+
+        @Override
+        public Optional<Order> stalestOnShelf() {
+            return shelf.getStalestOrder();
+        }
+
+        @Override
+        public long expiryOf(Order order) {
+            return KitchenManager.this.expiryOf(order);
+        }
+
+        @Override
+        public long pickupAt(Order order) {
+            synchronized (expiries) {
+                return pickups.expiryOf(order.getId());
+            }
+        }
+    }
+
+    private List<KitchenJournal.Entry> snapshot() {
+        List<KitchenJournal.Entry> entries = new ArrayList<>();
+        heater.getAllOrders().forEach(o -> entries.add(new KitchenJournal.Entry(o, IN_HEATER, expiryOf(o))));
+        cooler.getAllOrders().forEach(o -> entries.add(new KitchenJournal.Entry(o, IN_COOLER, expiryOf(o))));
+        shelf.forEachOrder((o, expiry) -> entries.add(new KitchenJournal.Entry(o, IN_SHELF, expiry)));
+        return entries;
+    }
+
+    private long expiryOf(Order order) {
+        synchronized (expiries) {
+            return expiries.expiryOf(order.getId());
+        }
+    }
+
+    /*
+        Rebuilds a journaled kitchen after a restart: contents from the latest snapshot plus the journal
+        records after it, and the action log from every retained record. New actions go to the same journal.
+     */
+    public static KitchenManager recover(KitchenJournal journal, ActionLog actionLog, Clock clock,
+                                         KitchenMetrics metrics) throws IOException {
+        journal.forEachAction(actionLog::append);
+        KitchenManager kitchen = new KitchenManager(actionLog, clock, HEATER_CAPACITY, COOLER_CAPACITY,
+                SHELF_CAPACITY, metrics, null);
+        journal.recover(kitchen.new Replayer());
+        kitchen.journal = journal;
+        return kitchen;
+    }
+
+    /*
+        Applies journaled changes directly to the storages, without logging them again. A snapshot may already
+        hold the effect of records just after it, so each change is applied only if the order is not already
+        where it leads: a placed order that is indexed, a move whose order is off the shelf and a removal
+        whose order is gone are all skipped.
+     */
+    private class Replayer implements KitchenJournal.Replay {
+        @Override
+        public void restore(Order order, byte location, long expiryMicros) {
+            if (locations.get(order.getId()) != null) return;
+            boolean added = location == IN_SHELF ? shelf.restore(order, expiryMicros)
+                    : storages[location].addOrder(order);
+            if (!added) return;
+            locations.put(order, location);
+            synchronized (expiries) {
+                expiries.add(order, expiryMicros);
+            }
+        }
+
+        @Override
+        public void discarded(String id) {
+            discarded.add(id);
+        }
+
+        @Override
+        public void place(long timestamp, Order order, byte location) {
+            restore(order, location, timestamp + order.getFreshness() * 1_000_000L / decayRate(order, location));
+        }
+
+        @Override
+        public void move(long timestamp, String id, byte location) {
+            Order order = locations.get(id);
+            if (order != null && ((AtomicCapacityStorage) storages[location]).moveFrom(shelf, order)) {
+                locations.put(order, location);
+                trackExpiry(order, location, ActionType.MOVE, timestamp);
+            }
+        }
+
+        @Override
+        public void remove(long timestamp, String id, ActionType type) {
+            byte location = locations.locationOf(id);
+            Order order = locations.remove(id);
+            if (order != null) {
+                storages[location].removeOrder(order);
+                trackExpiry(order, location, type, timestamp);
+            }
+            if (type == ActionType.DISCARD) {
+                discarded.add(id);
+            }
+        }
     }
 
     /*
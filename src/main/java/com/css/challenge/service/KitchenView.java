@@ -0,0 +1,44 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+
+import java.util.Optional;
+import java.util.function.ObjLongConsumer;
+
+/*
+    Read-only view of a kitchen for placement policies: occupancy, the orders on the shelf and, per order, when
+    its freshness runs out and when its courier is expected. Times are unix micros; locations are
+    KitchenManager.IN_HEATER, IN_COOLER and IN_SHELF.
+ */
+public interface KitchenView {
+    long now();
+
+    int size(byte location);
+
+    int capacity(byte location);
+
+    default boolean hasRoom(byte location) {
+        return size(location) < capacity(location);
+    }
+
+    /*
+        Visits every order on the shelf with its expiry there, without copying; policies that only need the
+        stalest order should use stalestOnShelf.
+     */
+    void forEachOnShelf(ObjLongConsumer<Order> visitor);
+
+    Optional<Order> stalestOnShelf(Temperature temperature);
+
+    Optional<Order> stalestOnShelf();
+
+    /*
+        When the order's remaining freshness runs out where it is now.
+     */
+    long expiryOf(Order order);
+
+    /*
+        When the order's courier is expected, or Long.MAX_VALUE if the kitchen was not told.
+     */
+    long pickupAt(Order order);
+}
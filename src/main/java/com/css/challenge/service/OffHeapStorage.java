@@ -0,0 +1,224 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/*
+    Storage for very large capacities that keeps its bookkeeping off the Java heap. Each order is a fixed-width
+    record (handle, temperature, location, freshness, placement time) in a direct buffer slab with a free list
+    threaded through the empty records, and an id-to-record open-addressing index lives in a second direct
+    buffer. Both are sized once from the capacity, so adding and removing orders allocates nothing and the heap
+    holds no per-order entries, whatever the capacity.
+
+    The index is keyed by the id's hash rather than the handle, so orders that never got one (NO_HANDLE) are
+    stored like any other and lookups by id are O(1). The only on-heap state is one array of the resident
+    Orders by record, which confirms an id on a hash match and answers cursor().order(). Prefer cursor() to
+    getAllOrders(), which copies. Methods are synchronized; isFull and size are single volatile reads.
+ */
+public class OffHeapStorage implements Storage {
+    static final int RECORD_BYTES = 24;
+    private static final int HANDLE = 0; // int; the next free record while this one is free
+    private static final int TEMPERATURE = 4; // byte, Temperature ordinal
+    private static final int LOCATION = 5; // byte, FREE while the record is free
+    private static final int FRESHNESS = 8; // int, seconds
+    private static final int PLACED_AT = 16; // long, unix micros
+    private static final byte FREE = -1;
+
+    private static final int INDEX_BYTES = 8; // int id hash, int record + 1 (0 marks an empty slot)
+    private static final int NO_RECORD = -1;
+    private static final Temperature[] TEMPERATURES = Temperature.values();
+
+    private final String name;
+    private final byte location;
+    private final int capacity;
+    private final Clock clock;
+    private final Order[] residents;
+    private final ByteBuffer slab;
+    private final ByteBuffer index;
+    private final int mask;
+    private int freeHead;
+    private volatile int size;
+
+    /*
+        Location is the kitchen's code for this storage, copied into every record.
+     */
+    public OffHeapStorage(String name, byte location, int capacity, Clock clock) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.name = name;
+        this.location = location;
+        this.capacity = capacity;
+        this.clock = clock;
+        this.residents = new Order[capacity];
+        this.slab = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, RECORD_BYTES));
+        int slots = Integer.highestOneBit(Math.max(8, capacity * 2 - 1)) << 1;
+        this.index = ByteBuffer.allocateDirect(Math.multiplyExact(slots, INDEX_BYTES));
+        this.mask = slots - 1;
+        for (int record = 0; record < capacity; record++) {
+            slab.put(record * RECORD_BYTES + LOCATION, FREE);
+            slab.putInt(record * RECORD_BYTES + HANDLE, record + 1 < capacity ? record + 1 : NO_RECORD);
+        }
+        this.freeHead = 0;
+    }
+
+    @Override
+    public synchronized boolean addOrder(Order order) {
+        if (size >= capacity) return false;
+        String id = order.getId();
+        int hash = OrderMap.hash(id);
+        int slot = slot(id, hash);
+        if (index.getInt(slot * INDEX_BYTES + 4) != 0) return false;
+
+        int record = freeHead;
+        int offset = record * RECORD_BYTES;
+        freeHead = slab.getInt(offset + HANDLE);
+        slab.putInt(offset + HANDLE, order.getHandle());
+        slab.put(offset + TEMPERATURE, (byte) order.getTemperature().ordinal());
+        slab.put(offset + LOCATION, location);
+        slab.putInt(offset + FRESHNESS, order.getFreshness());
+        slab.putLong(offset + PLACED_AT, ChronoUnit.MICROS.between(Instant.EPOCH, clock.instant()));
+        index.putInt(slot * INDEX_BYTES, hash);
+        index.putInt(slot * INDEX_BYTES + 4, record + 1);
+        residents[record] = order;
+        size++;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean removeOrderById(String id) {
+        int record = removeFromIndex(id);
+        if (record == NO_RECORD) return false;
+        int offset = record * RECORD_BYTES;
+        slab.put(offset + LOCATION, FREE);
+        slab.putInt(offset + HANDLE, freeHead);
+        residents[record] = null;
+        freeHead = record;
+        size--;
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<Order> getOrderById(String id) {
+        int record = record(id);
+        return record == NO_RECORD ? Optional.empty() : Optional.of(residents[record]);
+    }
+
+    @Override
+    public synchronized List<Order> getAllOrders() {
+        List<Order> all = new ArrayList<>(size);
+        for (Cursor cursor = cursor(); cursor.next(); ) {
+            all.add(cursor.order());
+        }
+        return all;
+    }
+
+    @Override
+    public boolean isFull() {
+        return size >= capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public synchronized boolean contains(Order order) {
+        return record(order.getId()) != NO_RECORD;
+    }
+
+    /*
+        When the order was added, in unix micros, or -1 if it is not here.
+     */
+    public synchronized long placedAt(Order order) {
+        int record = record(order.getId());
+        return record == NO_RECORD ? -1 : slab.getLong(record * RECORD_BYTES + PLACED_AT);
+    }
+
+    /*
+        A cursor over the resident records, reading fields straight from the slab without creating an object
+        per order. It is not a snapshot: hold the storage's monitor while iterating if it may be modified.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public class Cursor {
+        private int offset = -RECORD_BYTES;
+
+        private Cursor() {}
+
+        public boolean next() {
+            int end = capacity * RECORD_BYTES;
+            do {
+                offset += RECORD_BYTES;
+            } while (offset < end && slab.get(offset + LOCATION) == FREE);
+            return offset < end;
+        }
+
+        public int handle() {
+            return slab.getInt(offset + HANDLE);
+        }
+
+        public Temperature temperature() {
+            return TEMPERATURES[slab.get(offset + TEMPERATURE)];
+        }
+
+        public byte location() {
+            return slab.get(offset + LOCATION);
+        }
+
+        public int freshness() {
+            return slab.getInt(offset + FRESHNESS);
+        }
+
+        public long placedAt() {
+            return slab.getLong(offset + PLACED_AT);
+        }
+
+        public Order order() {
+            return residents[offset / RECORD_BYTES];
+        }
+    }
+
+    private int record(String id) {
+        return index.getInt(slot(id, OrderMap.hash(id)) * INDEX_BYTES + 4) - 1;
+    }
+
+    /*
+        Index slot holding the id, or the empty slot where it would be inserted. A matching hash is confirmed
+        against the resident order's id.
+     */
+    private int slot(String id, int hash) {
+        int i = hash & mask;
+        for (int entry; (entry = index.getInt(i * INDEX_BYTES + 4)) != 0; i = (i + 1) & mask) {
+            if (index.getInt(i * INDEX_BYTES) == hash && residents[entry - 1].getId().equals(id)) break;
+        }
+        return i;
+    }
+
+    /*
+        Removes the id with backward-shift deletion, as OrderMap does, and returns its record.
+     */
+    private int removeFromIndex(String id) {
+        int i = slot(id, OrderMap.hash(id));
+        int entry = index.getInt(i * INDEX_BYTES + 4);
+        if (entry == 0) return NO_RECORD;
+
+        int hole = i;
+        for (int j = (i + 1) & mask; index.getInt(j * INDEX_BYTES + 4) != 0; j = (j + 1) & mask) {
+            int home = index.getInt(j * INDEX_BYTES) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                index.putLong(hole * INDEX_BYTES, index.getLong(j * INDEX_BYTES));
+                hole = j;
+            }
+        }
+        index.putInt(hole * INDEX_BYTES + 4, 0);
+        return entry - 1;
+    }
+}
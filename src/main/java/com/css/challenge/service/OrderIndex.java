@@ -0,0 +1,116 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+
+/*
+    Kitchen-wide index from order id to the order and the storage it is in. Slots hold the Order itself and
+    a one-byte location, probed by the id's hash and compared against Order.getId(), so there is no entry
+    object and no second copy of the key. Synchronized so direct multi-threaded callers cannot corrupt it.
+
+    An order is admitted before it is stored anywhere: admit claims its id, so of two orders sharing an id
+    only the first is placed. Until put gives it a location, an admitted order reads as PENDING, which
+    lookups treat like a missing one.
+ */
+class OrderIndex {
+    static final byte PENDING = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private Order[] orders;
+    private byte[] locations;
+    private int mask;
+    private int size;
+
+    OrderIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        this.orders = new Order[capacity];
+        this.locations = new byte[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /*
+        Claims the order's id; false if an order with that id is already in the kitchen or being placed.
+     */
+    synchronized boolean admit(Order order) {
+        int i = slot(order.getId());
+        if (orders[i] != null) return false;
+        insert(i, order, PENDING);
+        return true;
+    }
+
+    synchronized void put(Order order, byte location) {
+        int i = slot(order.getId());
+        if (orders[i] == null) {
+            insert(i, order, location);
+        } else {
+            locations[i] = location;
+        }
+    }
+
+    synchronized Order get(String id) {
+        return orders[slot(id)];
+    }
+
+    synchronized byte locationOf(String id) {
+        int i = slot(id);
+        return orders[i] == null ? PENDING : locations[i];
+    }
+
+    synchronized Order remove(String id) {
+        int i = slot(id);
+        Order removed = orders[i];
+        if (removed == null) return null;
+
+        int hole = i;
+        for (int j = (i + 1) & mask; orders[j] != null; j = (j + 1) & mask) {
+            int home = hash(orders[j].getId()) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                orders[hole] = orders[j];
+                locations[hole] = locations[j];
+                hole = j;
+            }
+        }
+        orders[hole] = null;
+        size--;
+        return removed;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /*
+        Slot holding the id, or the empty slot where it would be inserted.
+     */
+    private int slot(String id) {
+        int i = hash(id) & mask;
+        while (orders[i] != null && !orders[i].getId().equals(id)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void insert(int i, Order order, byte location) {
+        orders[i] = order;
+        locations[i] = location;
+        if (++size * 4 > orders.length * 3) resize();
+    }
+
+    private void resize() {
+        Order[] oldOrders = orders;
+        byte[] oldLocations = locations;
+        orders = new Order[oldOrders.length * 2];
+        locations = new byte[oldLocations.length * 2];
+        mask = orders.length - 1;
+        for (int i = 0; i < oldOrders.length; i++) {
+            if (oldOrders[i] != null) {
+                int j = slot(oldOrders[i].getId());
+                orders[j] = oldOrders[i];
+                locations[j] = oldLocations[i];
+            }
+        }
+    }
+
+    private static int hash(String id) {
+        return OrderMap.hash(id);
+    }
+}
@@ -0,0 +1,100 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    Open-addressing set of orders keyed by id: one reference per slot, probed by the id's hash and compared
+    against Order.getId(), so there are no entry objects and no second copy of the key. Linear probing with
+    backward-shift deletion keeps probe chains short without tombstones. Not thread-safe; owners guard it.
+ */
+class OrderMap {
+    private static final int MIN_CAPACITY = 8;
+
+    private Order[] values;
+    private int mask;
+    private int size;
+
+    OrderMap(int expectedSize) {
+        this.values = new Order[capacityFor(expectedSize)];
+        this.mask = values.length - 1;
+    }
+
+    Order get(String id) {
+        return values[slot(id)];
+    }
+
+    /*
+        Returns the order already held under the same id, leaving it in place.
+     */
+    Order putIfAbsent(Order value) {
+        int i = slot(value.getId());
+        if (values[i] != null) return values[i];
+        values[i] = value;
+        if (++size * 4 > values.length * 3) resize();
+        return null;
+    }
+
+    Order remove(String id) {
+        int i = slot(id);
+        Order removed = values[i];
+        if (removed == null) return null;
+
+        // Shift later members of the probe chain back so no lookup stops early at the hole
+        int hole = i;
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = hash(values[j].getId()) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        values[hole] = null;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    List<Order> values() {
+        List<Order> all = new ArrayList<>(size);
+        for (Order value : values) {
+            if (value != null) all.add(value);
+        }
+        return all;
+    }
+
+    private int slot(String id) {
+        int i = hash(id) & mask;
+        while (values[i] != null && !values[i].getId().equals(id)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void resize() {
+        Order[] old = values;
+        values = new Order[old.length * 2];
+        mask = values.length - 1;
+        for (Order value : old) {
+            if (value != null) values[slot(value.getId())] = value;
+        }
+    }
+
+    static int capacityFor(int expectedSize) {
+        return Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+    }
+
+    static int hash(String id) {
+        return hash(id.hashCode());
+    }
+
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,90 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+
+/*
+    Open-addressing map from order id to a non-negative int (e.g. the order's heap slot), stored as the Order
+    and the int in two flat arrays and compared against Order.getId(). Missing ids read as -1. Not
+    thread-safe; owners guard it.
+ */
+class OrderSlots {
+    static final int MISSING = -1;
+
+    private Order[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    OrderSlots(int expectedSize) {
+        int capacity = OrderMap.capacityFor(expectedSize);
+        this.keys = new Order[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    int get(String id) {
+        int i = slot(id);
+        return keys[i] == null ? MISSING : values[i];
+    }
+
+    boolean containsKey(String id) {
+        return keys[slot(id)] != null;
+    }
+
+    /*
+        Maps the order's id to value, replacing any order held under the same id.
+     */
+    void put(Order key, int value) {
+        int i = slot(key.getId());
+        boolean added = keys[i] == null;
+        keys[i] = key;
+        values[i] = value;
+        if (added && ++size * 4 > keys.length * 3) resize();
+    }
+
+    int remove(String id) {
+        int i = slot(id);
+        if (keys[i] == null) return MISSING;
+        int removed = values[i];
+
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = OrderMap.hash(keys[j].getId()) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = null;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(String id) {
+        int i = OrderMap.hash(id) & mask;
+        while (keys[i] != null && !keys[i].getId().equals(id)) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void resize() {
+        Order[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Order[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int j = slot(oldKeys[i].getId());
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+
+/*
+    Decides, for an order that fits neither its ideal storage nor the shelf, which shelf order to move to its
+    heater or cooler, or failing that which shelf order to discard, to make room. The kitchen still places
+    orders in their ideal storage, then on the shelf, whenever there is room; policies only pick victims.
+    Policies see the incoming order, when its courier is expected (unix micros, Long.MAX_VALUE if unknown)
+    and a read-only view of the kitchen, and must not keep the view beyond the call.
+ */
+public interface PlacementPolicy {
+    /*
+        A shelf order whose ideal storage has room, to move there; null to skip straight to discarding.
+     */
+    Order moveCandidate(Order incoming, long pickupAt, KitchenView kitchen);
+
+    /*
+        A shelf order to discard; null leaves the choice to the kitchen, which discards the stalest one.
+     */
+    Order discardVictim(Order incoming, long pickupAt, KitchenView kitchen);
+
+    /*
+        The built-in policies, e.g. for choosing one on the command line.
+     */
+    enum Kind {
+        FRESHNESS, DEADLINE;
+
+        public PlacementPolicy create() {
+            return switch (this) {
+                case FRESHNESS -> new FreshnessPolicy();
+                case DEADLINE -> new DeadlinePolicy();
+            };
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.ColumnarActionLog;
+import com.css.challenge.client.Order;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    Owns N independent kitchens. Each order id is routed to a shard by consistent hashing; if the owner shard
+    would have to discard to take the order, the next shards clockwise on the ring are tried first. Each shard
+    is guarded by its own lock, so placements on different shards run in parallel. An id is claimed in the
+    route table before any shard is tried, so a second order with the same id is turned away, like in a
+    single kitchen, instead of being placed on a neighbour shard.
+ */
+public class ShardedKitchenManager {
+    private static final int VIRTUAL_NODES = 64;
+    // Route of an id whose placement is still in progress
+    private static final Integer PLACING = -1;
+
+    private final KitchenManager[] shards;
+    private final ActionLog[] logs;
+    private final int[] ringHashes;
+    private final int[] ringShards;
+    private final Map<String, Integer> locations = new ConcurrentHashMap<>();
+
+    public ShardedKitchenManager(int shardCount, Clock clock) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shards = new KitchenManager[shardCount];
+        this.logs = new ActionLog[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            logs[i] = new ShardLog();
+            shards[i] = new KitchenManager(logs[i], clock);
+        }
+
+        // Sorted ring of virtual nodes; each shard owns the arcs ending at its nodes
+        long[] nodes = new long[shardCount * VIRTUAL_NODES];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int v = 0; v < VIRTUAL_NODES; v++) {
+                int hash = mix(shard * 1_000_003 + v);
+                nodes[shard * VIRTUAL_NODES + v] = ((long) hash << 32) | shard;
+            }
+        }
+        Arrays.sort(nodes);
+        this.ringHashes = new int[nodes.length];
+        this.ringShards = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            ringHashes[i] = (int) (nodes[i] >> 32);
+            ringShards[i] = (int) nodes[i];
+        }
+    }
+
+    /*
+        Returns true if the order was placed; false if an order with its id is already in the kitchens. The route
+        is recorded under the shard's lock and only once the shard has accepted the order, so a pickup that sees
+        no route, or a placement still in progress, ran before the placement.
+     */
+    public boolean placeOrder(Order order) {
+        if (locations.putIfAbsent(order.getId(), PLACING) != null) return false;
+        int[] candidates = candidateShards(order.getId());
+        for (int i = 0; i < candidates.length; i++) {
+            KitchenManager shard = shards[candidates[i]];
+            synchronized (shard) {
+                if (shard.wouldDiscard(order)) continue;
+                return placeOn(shard, candidates[i], order);
+            }
+        }
+
+        // Every shard is saturated: let the owner discard
+        KitchenManager owner = shards[candidates[0]];
+        synchronized (owner) {
+            return placeOn(owner, candidates[0], order);
+        }
+    }
+
+    /*
+        Called with the shard's lock held.
+     */
+    private boolean placeOn(KitchenManager shard, int shardIndex, Order order) {
+        if (shard.placeOrder(order)) {
+            locations.put(order.getId(), shardIndex);
+            return true;
+        }
+        locations.remove(order.getId(), PLACING);
+        return false;
+    }
+
+    public boolean pickupOrder(String id) {
+        Integer shardIndex = locations.get(id);
+        if (shardIndex == null || shardIndex.equals(PLACING) || !locations.remove(id, shardIndex)) return false;
+        KitchenManager shard = shards[shardIndex];
+        synchronized (shard) {
+            return shard.pickupOrder(id);
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /*
+        Orders currently routed to a shard.
+     */
+    int routedOrders() {
+        return (int) locations.values().stream().filter(shard -> !shard.equals(PLACING)).count();
+    }
+
+    /*
+        Shard that owns the id on the hash ring, regardless of where the order was actually placed.
+     */
+    public int ownerShard(String id) {
+        return ringShards[ringIndex(mix(id.hashCode()))];
+    }
+
+    public ActionLog shardActionLog(int shard) {
+        return logs[shard];
+    }
+
+    /*
+        All shards' actions merged into one log ordered by timestamp.
+     */
+    public ActionLog aggregateActionLog() {
+        ActionLog aggregate = new ColumnarActionLog();
+        Arrays.stream(logs)
+                .flatMap(log -> log.toList().stream())
+                .sorted(Comparator.comparingLong(Action::getTimestamp))
+                .forEach(a -> aggregate.append(a.getTimestamp(), a.getId(), a.getAction()));
+        return aggregate;
+    }
+
+    /*
+        Distinct shards in ring order starting at the owner of the id.
+     */
+    private int[] candidateShards(String id) {
+        int start = ringIndex(mix(id.hashCode()));
+        int[] candidates = new int[shards.length];
+        boolean[] seen = new boolean[shards.length];
+        int found = 0;
+        for (int i = 0; i < ringShards.length && found < shards.length; i++) {
+            int shard = ringShards[(start + i) % ringShards.length];
+            if (!seen[shard]) {
+                seen[shard] = true;
+                candidates[found++] = shard;
+            }
+        }
+        return found == shards.length ? candidates : Arrays.copyOf(candidates, found);
+    }
+
+    private int ringIndex(int hash) {
+        int index = Arrays.binarySearch(ringHashes, hash);
+        if (index < 0) index = -index - 1;
+        return index == ringHashes.length ? 0 : index;
+    }
+
+    /*
+        A shard's action log. Appends happen under the shard's lock, and every order the shard discards is
+        unrouted as its DISCARD is appended, so routes only ever name orders that are still in a kitchen.
+     */
+    private final class ShardLog implements ActionLog {
+        private final ActionLog log = new ColumnarActionLog();
+
+        @Override
+        public void append(long timestamp, String id, ActionType action) {
+            log.append(timestamp, id, action);
+            if (action == ActionType.DISCARD) locations.remove(id);
+        }
+
+        @Override
+        public void appendAll(long timestamp, String[] ids, ActionType[] actions, int count) {
+            log.appendAll(timestamp, ids, actions, count);
+            for (int i = 0; i < count; i++) {
+                if (actions[i] == ActionType.DISCARD) locations.remove(ids[i]);
+            }
+        }
+
+        @Override
+        public int size() {
+            return log.size();
+        }
+
+        @Override
+        public void forEach(Visitor visitor) {
+            log.forEach(visitor);
+        }
+    }
+
+    private static int mix(int h) {
+        // murmur3 finalizer: spreads sequential ids and shard numbers evenly around the ring
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
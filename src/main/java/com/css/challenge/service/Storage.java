@@ -12,4 +12,11 @@ interface Storage {
     List<Order> getAllOrders();
     boolean isFull();
 
+    /*
+        Removes this order by its id. FreshnessShelfStorage overrides it to go straight to the heap for the
+        order's temperature instead of trying all three.
+     */
+    default boolean removeOrder(Order order) {
+        return removeOrderById(order.getId());
+    }
 }
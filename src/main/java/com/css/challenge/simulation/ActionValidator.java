@@ -0,0 +1,288 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Client;
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.service.KitchenManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ActionValidator checks an action sequence against its orders locally, in the single pass the
+ * challenge server would make, and scores it. Actions carry no storage, so each one is applied the
+ * way the kitchen does: a place goes to the order's ideal storage if it has room and to the shelf
+ * otherwise, and a move takes an order from the shelf to its ideal storage. Orders may be discarded
+ * from any storage, e.g. once expired. Freshness decays at twice the rate on the shelf for orders
+ * that are not room temperature.
+ *
+ * <p>A validator visits each action once with a single map lookup, so it can check millions of
+ * actions per second inline in a test.
+ */
+public class ActionValidator implements ActionLog.Visitor {
+  /** MAX_VIOLATIONS is how many violations a report keeps in detail; all are counted. */
+  public static final int MAX_VIOLATIONS = 100;
+
+  private static final byte HEATER = 0;
+  private static final byte COOLER = 1;
+  private static final byte SHELF = 2;
+  private static final byte UNPLACED = 3;
+  private static final byte PICKED_UP = 4;
+  private static final byte DISCARDED = 5;
+  private static final String[] LOCATIONS = {
+    "heater", "cooler", "shelf", "unplaced", "picked up", "discarded"
+  };
+
+  private final Map<String, Tracked> orders;
+  private final int[] capacity;
+  private final int[] occupancy = new int[3];
+  private final long[] counts = new long[ActionType.values().length];
+  private final List<Violation> violations = new ArrayList<>();
+  private long minPickupMicros = 0;
+  private long maxPickupMicros = Long.MAX_VALUE;
+  private long violationCount;
+  private long expiredPickups;
+  private double freshnessAtPickup;
+  private long lastTimestamp = Long.MIN_VALUE;
+
+  /** Tracked is the validator's view of one order. */
+  private static final class Tracked {
+    final Order order;
+    byte location = UNPLACED;
+    long placedAt;
+    long since; // when the order entered its current location
+    long decayed; // freshness used so far, in microseconds at the ideal-storage rate
+
+    Tracked(Order order) {
+      this.order = order;
+    }
+  }
+
+  /** Violation is one action that breaks a rule, and why. */
+  public record Violation(long timestamp, String id, ActionType action, String reason) {
+    @Override
+    public String toString() {
+      return timestamp + " " + action.toLower() + " " + id + ": " + reason;
+    }
+  }
+
+  /**
+   * Report summarizes a validated sequence. The score is the mean fraction of freshness left at
+   * pickup over all orders, so discarded, expired and never picked up orders count as zero.
+   */
+  public record Report(
+      int orders,
+      long[] counts,
+      long unfinished,
+      long expiredPickups,
+      double score,
+      long violationCount,
+      List<Violation> violations) {
+
+    public boolean valid() {
+      return violationCount == 0;
+    }
+
+    public long count(ActionType type) {
+      return counts[type.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%s: score %.3f, %d orders, %d placed, %d moved, %d picked up (%d expired), %d discarded,"
+              + " %d unfinished, %d violations%s",
+          valid() ? "valid" : "invalid",
+          score,
+          orders,
+          count(ActionType.PLACE),
+          count(ActionType.MOVE),
+          count(ActionType.PICKUP),
+          expiredPickups,
+          count(ActionType.DISCARD),
+          unfinished,
+          violationCount,
+          violations.isEmpty() ? "" : ", first: " + violations.get(0));
+    }
+  }
+
+  /** Validates against the kitchen's default capacities. */
+  public ActionValidator(Collection<Order> orders) {
+    this(
+        orders,
+        KitchenManager.HEATER_CAPACITY,
+        KitchenManager.COOLER_CAPACITY,
+        KitchenManager.SHELF_CAPACITY);
+  }
+
+  public ActionValidator(
+      Collection<Order> orders, int heaterCapacity, int coolerCapacity, int shelfCapacity) {
+    this.orders = new HashMap<>(orders.size() * 4 / 3 + 1);
+    for (Order order : orders) {
+      this.orders.put(order.getId(), new Tracked(order));
+    }
+    this.capacity = new int[] {heaterCapacity, coolerCapacity, shelfCapacity};
+  }
+
+  /** pickupWindow additionally requires every pickup to come min to max after its placement. */
+  public ActionValidator pickupWindow(Duration min, Duration max) {
+    this.minPickupMicros = min.toNanos() / 1_000;
+    this.maxPickupMicros = max.toNanos() / 1_000;
+    return this;
+  }
+
+  /** validate checks every action of a solution file written by Client.writeSolution. */
+  public Report validate(InputStream solution) throws IOException {
+    Client.readActions(solution, this);
+    return report();
+  }
+
+  public Report validate(ActionLog actions) {
+    actions.forEach(this);
+    return report();
+  }
+
+  @Override
+  public void visit(long timestamp, String id, ActionType action) {
+    counts[action.ordinal()]++;
+    if (timestamp < lastTimestamp) {
+      violation(timestamp, id, action, "out of order, previous action at " + lastTimestamp);
+    }
+    lastTimestamp = Math.max(lastTimestamp, timestamp);
+
+    Tracked tracked = orders.get(id);
+    if (tracked == null) {
+      violation(timestamp, id, action, "unknown order");
+      return;
+    }
+    switch (action) {
+      case PLACE -> place(timestamp, tracked);
+      case MOVE -> move(timestamp, tracked);
+      case PICKUP -> pickup(timestamp, tracked);
+      case DISCARD -> discard(timestamp, tracked);
+    }
+  }
+
+  private void place(long timestamp, Tracked tracked) {
+    if (tracked.location != UNPLACED) {
+      violation(timestamp, tracked, ActionType.PLACE, "already " + LOCATIONS[tracked.location]);
+      return;
+    }
+    byte ideal = ideal(tracked.order);
+    byte target = ideal != SHELF && occupancy[ideal] < capacity[ideal] ? ideal : SHELF;
+    if (occupancy[target] >= capacity[target]) {
+      violation(timestamp, tracked, ActionType.PLACE, "no room, " + LOCATIONS[target] + " is full");
+    }
+    tracked.placedAt = timestamp;
+    enter(timestamp, tracked, target);
+  }
+
+  private void move(long timestamp, Tracked tracked) {
+    byte ideal = ideal(tracked.order);
+    if (tracked.location != SHELF || ideal == SHELF) {
+      violation(
+          timestamp, tracked, ActionType.MOVE, "cannot move from " + LOCATIONS[tracked.location]);
+      return;
+    }
+    if (occupancy[ideal] >= capacity[ideal]) {
+      violation(timestamp, tracked, ActionType.MOVE, LOCATIONS[ideal] + " is full");
+    }
+    leave(timestamp, tracked);
+    enter(timestamp, tracked, ideal);
+  }
+
+  private void pickup(long timestamp, Tracked tracked) {
+    if (tracked.location > SHELF) {
+      String reason =
+          tracked.location == UNPLACED ? "picked up before placement" : LOCATIONS[tracked.location];
+      violation(timestamp, tracked, ActionType.PICKUP, reason);
+      return;
+    }
+    leave(timestamp, tracked);
+    tracked.location = PICKED_UP;
+
+    long delay = timestamp - tracked.placedAt;
+    if (delay < minPickupMicros || delay > maxPickupMicros) {
+      violation(timestamp, tracked, ActionType.PICKUP, "picked up " + delay + "us after placement");
+    }
+    long freshnessMicros = tracked.order.getFreshness() * 1_000_000L;
+    if (tracked.decayed >= freshnessMicros) {
+      expiredPickups++;
+      violation(timestamp, tracked, ActionType.PICKUP, "picked up expired");
+    } else {
+      freshnessAtPickup += 1 - (double) tracked.decayed / freshnessMicros;
+    }
+  }
+
+  private void discard(long timestamp, Tracked tracked) {
+    if (tracked.location > SHELF) {
+      violation(
+          timestamp,
+          tracked,
+          ActionType.DISCARD,
+          "cannot discard, " + LOCATIONS[tracked.location]);
+      return;
+    }
+    leave(timestamp, tracked);
+    tracked.location = DISCARDED;
+  }
+
+  private void enter(long timestamp, Tracked tracked, byte location) {
+    tracked.location = location;
+    tracked.since = timestamp;
+    occupancy[location]++;
+  }
+
+  /** leave takes the order out of its storage and charges the freshness it used there. */
+  private void leave(long timestamp, Tracked tracked) {
+    long elapsed = Math.max(timestamp - tracked.since, 0);
+    boolean doubled =
+        tracked.location == SHELF && tracked.order.getTemperature() != Temperature.ROOM;
+    tracked.decayed += doubled ? 2 * elapsed : elapsed;
+    occupancy[tracked.location]--;
+  }
+
+  private static byte ideal(Order order) {
+    return switch (order.getTemperature()) {
+      case HOT -> HEATER;
+      case COLD -> COOLER;
+      case ROOM -> SHELF;
+    };
+  }
+
+  private void violation(long timestamp, Tracked tracked, ActionType action, String reason) {
+    violation(timestamp, tracked.order.getId(), action, reason);
+  }
+
+  private void violation(long timestamp, String id, ActionType action, String reason) {
+    if (violations.size() < MAX_VIOLATIONS) {
+      violations.add(new Violation(timestamp, id, action, reason));
+    }
+    violationCount++;
+  }
+
+  /** report summarizes the actions visited so far. */
+  public Report report() {
+    long unfinished = 0;
+    for (Tracked tracked : orders.values()) {
+      if (tracked.location <= UNPLACED) {
+        unfinished++;
+      }
+    }
+    return new Report(
+        orders.size(),
+        counts.clone(),
+        unfinished,
+        expiredPickups,
+        orders.isEmpty() ? 0 : freshnessAtPickup / orders.size(),
+        violationCount,
+        List.copyOf(violations));
+  }
+}
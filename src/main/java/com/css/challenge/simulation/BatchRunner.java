@@ -0,0 +1,145 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Problem;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * BatchRunner runs many problems side by side in one JVM, each on its own virtual thread with its
+ * own kitchen. Real-time runs share one timer-driven scheduler, through views that run each run's
+ * events one at a time; virtual-time runs need no timer, so each gets its own discrete-event
+ * scheduler and they proceed in parallel on the carrier threads. Runs share the simulation's
+ * metrics, with gauges registered per run under its test id.
+ */
+public class BatchRunner {
+  private final Simulation simulation;
+  private final ClockMode clock;
+
+  public BatchRunner(Simulation simulation, ClockMode clock) {
+    this.simulation = simulation;
+    this.clock = clock;
+  }
+
+  /** Outcome is the result of one simulation: its action log and counts, or why it failed. */
+  public record Outcome(
+      String testId, int orders, ActionLog actions, long[] counts, Duration elapsed, Throwable error) {
+
+    public boolean ok() {
+      return error == null;
+    }
+
+    public long count(ActionType type) {
+      return counts[type.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+      if (!ok()) {
+        return testId + ": failed after " + elapsed.toMillis() + "ms: " + error;
+      }
+      return testId
+          + ": "
+          + orders
+          + " orders, "
+          + count(ActionType.PLACE)
+          + " placed, "
+          + count(ActionType.MOVE)
+          + " moved, "
+          + count(ActionType.PICKUP)
+          + " picked up, "
+          + count(ActionType.DISCARD)
+          + " discarded in "
+          + elapsed.toMillis()
+          + "ms";
+    }
+  }
+
+  /** Report aggregates the outcomes of one batch. */
+  public record Report(List<Outcome> outcomes, Duration elapsed) {
+
+    /** throughput is completed simulations per second of batch wall-clock time. */
+    public double throughput() {
+      long nanos = Math.max(elapsed.toNanos(), 1);
+      return outcomes.stream().filter(Outcome::ok).count() * 1e9 / nanos;
+    }
+
+    public long failures() {
+      return outcomes.stream().filter(outcome -> !outcome.ok()).count();
+    }
+
+    public long total(ActionType type) {
+      return outcomes.stream().filter(Outcome::ok).mapToLong(outcome -> outcome.count(type)).sum();
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d simulations (%d failed) in %dms: %.1f simulations/s, %d placed, %d moved, %d picked"
+              + " up, %d discarded",
+          outcomes.size(),
+          failures(),
+          elapsed.toMillis(),
+          throughput(),
+          total(ActionType.PLACE),
+          total(ActionType.MOVE),
+          total(ActionType.PICKUP),
+          total(ActionType.DISCARD));
+    }
+  }
+
+  /** run simulates every problem concurrently and reports outcomes in problem order. */
+  public Report run(List<Problem> problems) throws InterruptedException {
+    long began = System.nanoTime();
+    List<Outcome> outcomes = new ArrayList<>(problems.size());
+    try (EventScheduler shared =
+            clock == ClockMode.REAL ? ExecutorEventScheduler.virtualThreads(Clock.systemUTC()) : null;
+        ExecutorService runners = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<Outcome>> futures = new ArrayList<>(problems.size());
+      for (Problem problem : problems) {
+        futures.add(runners.submit(() -> run(problem, shared)));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          outcomes.add(futures.get(i).get());
+        } catch (ExecutionException e) {
+          Problem problem = problems.get(i);
+          outcomes.add(
+              new Outcome(
+                  problem.getTestId(),
+                  problem.getOrders().size(),
+                  null,
+                  new long[ActionType.values().length],
+                  Duration.ZERO,
+                  e.getCause()));
+        }
+      }
+    }
+    return new Report(outcomes, Duration.ofNanos(System.nanoTime() - began));
+  }
+
+  private Outcome run(Problem problem, EventScheduler shared) throws InterruptedException {
+    long began = System.nanoTime();
+    ActionLog actions;
+    try (EventScheduler scheduler =
+        shared != null ? new ScopedEventScheduler(shared) : clock.newScheduler(1)) {
+      actions = simulation.run(problem.getOrders(), scheduler, problem.getTestId());
+    }
+    long[] counts = new long[ActionType.values().length];
+    actions.forEach((timestamp, id, action) -> counts[action.ordinal()]++);
+    return new Outcome(
+        problem.getTestId(),
+        problem.getOrders().size(),
+        actions,
+        counts,
+        Duration.ofNanos(System.nanoTime() - began),
+        null);
+  }
+}
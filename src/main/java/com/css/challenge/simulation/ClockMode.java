@@ -0,0 +1,31 @@
+package com.css.challenge.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/** ClockMode selects how simulated time passes. */
+public enum ClockMode {
+  /** REAL waits for wall-clock time between events. */
+  REAL,
+  /** VIRTUAL jumps straight from one event to the next in timestamp order. */
+  VIRTUAL;
+
+  public EventScheduler newScheduler(int threads) {
+    return newScheduler(threads, false);
+  }
+
+  /**
+   * newScheduler with timingWheel set runs real-time events on a 1ms timing wheel instead of a
+   * scheduled thread pool. Virtual time is unaffected.
+   */
+  public EventScheduler newScheduler(int threads, boolean timingWheel) {
+    if (this == VIRTUAL) {
+      return new DiscreteEventScheduler(new VirtualClock(Instant.now()));
+    }
+    if (timingWheel) {
+      return new TimingWheelEventScheduler(Duration.ofMillis(1), Clock.systemUTC());
+    }
+    return new ExecutorEventScheduler(threads, Clock.systemUTC());
+  }
+}
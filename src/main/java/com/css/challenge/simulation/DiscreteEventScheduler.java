@@ -0,0 +1,50 @@
+package com.css.challenge.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * DiscreteEventScheduler is a single-threaded discrete-event engine. Events run in timestamp
+ * order (ties in scheduling order) as fast as the CPU allows, and the virtual clock is advanced to
+ * each event's due time before it runs, so actions carry the timestamps a real-time run would have
+ * logged.
+ */
+public class DiscreteEventScheduler implements EventScheduler {
+  private final VirtualClock clock;
+  private final PriorityQueue<Event> events =
+      new PriorityQueue<>(Comparator.comparing(Event::due).thenComparingLong(Event::seq));
+  private long seq;
+
+  public DiscreteEventScheduler(VirtualClock clock) {
+    this.clock = clock;
+  }
+
+  private record Event(Instant due, long seq, Runnable task) {}
+
+  @Override
+  public Clock clock() {
+    return clock;
+  }
+
+  @Override
+  public void schedule(Duration delay, Runnable task) {
+    events.add(new Event(clock.instant().plus(delay), seq++, task));
+  }
+
+  @Override
+  public void drain() {
+    Event event;
+    while ((event = events.poll()) != null) {
+      clock.advanceTo(event.due());
+      event.task().run();
+    }
+  }
+
+  @Override
+  public void close() {
+    events.clear();
+  }
+}
@@ -0,0 +1,33 @@
+package com.css.challenge.simulation;
+
+import java.util.SplittableRandom;
+
+/** Distribution draws non-negative samples from a caller-supplied random source. */
+@FunctionalInterface
+public interface Distribution {
+  double sample(SplittableRandom random);
+
+  static Distribution constant(double value) {
+    return random -> value;
+  }
+
+  /** uniform draws from {@code [min, max)}, or always min when the range is empty. */
+  static Distribution uniform(double min, double max) {
+    return random -> max > min ? random.nextDouble(min, max) : min;
+  }
+
+  static Distribution exponential(double mean) {
+    return random -> -mean * Math.log(1 - random.nextDouble());
+  }
+
+  /** normal draws from a normal distribution truncated at zero. */
+  static Distribution normal(double mean, double stddev) {
+    return random -> {
+      // Box-Muller; SplittableRandom has no nextGaussian of its own
+      double u = 1 - random.nextDouble();
+      double v = random.nextDouble();
+      double gaussian = Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+      return Math.max(0, mean + stddev * gaussian);
+    };
+  }
+}
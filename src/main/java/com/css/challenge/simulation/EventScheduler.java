@@ -0,0 +1,22 @@
+package com.css.challenge.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * EventScheduler runs simulation events (order placements and pickups) after a delay, measured
+ * against its own clock.
+ */
+public interface EventScheduler extends AutoCloseable {
+  /** clock is the time source events are scheduled against and actions should be stamped with. */
+  Clock clock();
+
+  /** schedule runs the task once the delay has elapsed on the scheduler clock. */
+  void schedule(Duration delay, Runnable task);
+
+  /** drain blocks until every scheduled task, including tasks scheduled by tasks, has run. */
+  void drain() throws InterruptedException;
+
+  @Override
+  void close();
+}
@@ -0,0 +1,104 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.service.DecisionTrace;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExecutorEventScheduler runs events in wall-clock time on a scheduled thread pool, or, with a
+ * separate worker executor, uses the pool only as a timer and hands each due event to a worker.
+ */
+public class ExecutorEventScheduler implements EventScheduler {
+  private final ScheduledExecutorService executor;
+  private final Executor workers;
+  private final Clock clock;
+  private final Object lock = new Object();
+  private int pending;
+
+  public ExecutorEventScheduler(int threads, Clock clock) {
+    this(Executors.newScheduledThreadPool(threads), clock);
+  }
+
+  public ExecutorEventScheduler(ScheduledExecutorService executor, Clock clock) {
+    this(executor, null, clock);
+  }
+
+  public ExecutorEventScheduler(ScheduledExecutorService timer, Executor workers, Clock clock) {
+    this.executor = timer;
+    this.workers = workers;
+    this.clock = clock;
+  }
+
+  /**
+   * virtualThreads returns a scheduler whose single timer thread starts every event on its own
+   * virtual thread, so any number of simulations can share it without a thread per simulation. It
+   * refuses to start while decision tracing is enabled, since tracing keeps a ring per recording
+   * thread and would allocate one for every event.
+   */
+  public static ExecutorEventScheduler virtualThreads(Clock clock) {
+    if (DecisionTrace.ENABLED) {
+      throw new IllegalStateException(
+          "Decision tracing is not supported with the virtual-thread scheduler");
+    }
+    return new ExecutorEventScheduler(
+        Executors.newSingleThreadScheduledExecutor(),
+        Executors.newVirtualThreadPerTaskExecutor(),
+        clock);
+  }
+
+  @Override
+  public Clock clock() {
+    return clock;
+  }
+
+  @Override
+  public void schedule(Duration delay, Runnable task) {
+    synchronized (lock) {
+      pending++;
+    }
+    Runnable tracked =
+        () -> {
+          try {
+            task.run();
+          } finally {
+            synchronized (lock) {
+              if (--pending == 0) {
+                lock.notifyAll();
+              }
+            }
+          }
+        };
+    executor.schedule(
+        workers == null ? tracked : () -> workers.execute(tracked),
+        delay.toNanos(),
+        TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void drain() throws InterruptedException {
+    synchronized (lock) {
+      while (pending > 0) {
+        lock.wait();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      executor.awaitTermination(3, TimeUnit.SECONDS);
+      if (workers instanceof ExecutorService service) {
+        service.shutdown();
+        service.awaitTermination(3, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.Order;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * OrderFeed hands orders from a producer thread, such as a problem download, to a simulation
+ * running on another. The producer accepts each order as soon as it has it and closes the feed when
+ * it is done, however it ends; iterating waits for each next order until then. A single thread
+ * iterates.
+ */
+public class OrderFeed implements Consumer<Order>, Iterator<Order>, AutoCloseable {
+  private static final Order END = new Order("", "", "room", 0);
+
+  private final BlockingQueue<Order> queue = new LinkedBlockingQueue<>();
+  private Order next;
+
+  @Override
+  public void accept(Order order) {
+    queue.add(order);
+  }
+
+  /** close ends the feed after the orders accepted so far. */
+  @Override
+  public void close() {
+    queue.add(END);
+  }
+
+  /**
+   * hasNext waits for the producer's next order or the end of the feed. If the waiting thread is
+   * interrupted, the feed ends there and the interrupt flag is kept.
+   */
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      try {
+        next = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        next = END;
+      }
+    }
+    return next != END;
+  }
+
+  @Override
+  public Order next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Order order = next;
+    next = null;
+    return order;
+  }
+}
@@ -0,0 +1,146 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.Order;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * OrderGenerator produces synthetic load: a reproducible, lazily generated stream of orders with
+ * their arrival times and pickup delays. The same seed and settings always give the same stream,
+ * and only the order being generated is held in memory.
+ */
+public class OrderGenerator {
+  /** Arrival is the process orders arrive by, at a mean of one order per rate. */
+  public enum Arrival {
+    /** CONSTANT spaces orders exactly one rate apart. */
+    CONSTANT,
+    /** POISSON draws exponentially distributed gaps. */
+    POISSON,
+    /** BURSTY delivers orders in bursts of burstSize at once, with Poisson-distributed bursts. */
+    BURSTY
+  }
+
+  private static final String[] TEMPERATURES = {"hot", "cold", "room"};
+
+  private final long seed;
+  private double[] temperatureWeights = {1, 1, 1};
+  private Distribution freshness = Distribution.uniform(30, 300);
+  private Arrival arrival = Arrival.CONSTANT;
+  private Duration rate = Duration.ofMillis(500);
+  private int burstSize = 10;
+  private Distribution pickupDelay = Distribution.uniform(4, 8);
+
+  public OrderGenerator(long seed) {
+    this.seed = seed;
+  }
+
+  /** temperatures sets the relative weights of hot, cold and room temperature orders. */
+  public OrderGenerator temperatures(double hot, double cold, double room) {
+    if (hot < 0 || cold < 0 || room < 0 || hot + cold + room <= 0) {
+      throw new IllegalArgumentException("weights must be non-negative with a positive sum");
+    }
+    this.temperatureWeights = new double[] {hot, cold, room};
+    return this;
+  }
+
+  /** freshness sets the distribution of order freshness, in seconds; samples are at least 1. */
+  public OrderGenerator freshness(Distribution seconds) {
+    this.freshness = seconds;
+    return this;
+  }
+
+  public OrderGenerator arrivals(Arrival arrival, Duration rate) {
+    this.arrival = arrival;
+    this.rate = rate;
+    return this;
+  }
+
+  public OrderGenerator burstSize(int burstSize) {
+    if (burstSize < 1) {
+      throw new IllegalArgumentException("burst size must be positive: " + burstSize);
+    }
+    this.burstSize = burstSize;
+    return this;
+  }
+
+  /** pickupDelay sets the distribution of the delay from placement to pickup, in seconds. */
+  public OrderGenerator pickupDelay(Distribution seconds) {
+    this.pickupDelay = seconds;
+    return this;
+  }
+
+  /** stream lazily generates count orders in arrival order. */
+  public Stream<ScheduledOrder> stream(long count) {
+    Iterator<ScheduledOrder> orders = new Generated(count);
+    return StreamSupport.stream(
+        Spliterators.spliterator(
+            orders, count, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE),
+        false);
+  }
+
+  private class Generated implements Iterator<ScheduledOrder> {
+    private final SplittableRandom random = new SplittableRandom(seed);
+    private final long count;
+    private long index;
+    private long arrivalNanos;
+
+    Generated(long count) {
+      this.count = count;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < count;
+    }
+
+    @Override
+    public ScheduledOrder next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (index > 0) {
+        arrivalNanos += gapNanos();
+      }
+      Order order =
+          new Order(
+              "g" + index,
+              "Item " + index,
+              temperature(),
+              (int) Math.max(1, Math.round(freshness.sample(random))),
+              (int) index);
+      long pickupNanos = (long) (pickupDelay.sample(random) * 1e9);
+      index++;
+      return new ScheduledOrder(order, Duration.ofNanos(arrivalNanos), Duration.ofNanos(pickupNanos));
+    }
+
+    private long gapNanos() {
+      double mean = rate.toNanos();
+      return switch (arrival) {
+        case CONSTANT -> rate.toNanos();
+        case POISSON -> (long) Distribution.exponential(mean).sample(random);
+        case BURSTY ->
+            index % burstSize == 0
+                ? (long) Distribution.exponential(mean * burstSize).sample(random)
+                : 0;
+      };
+    }
+
+    private String temperature() {
+      double total = temperatureWeights[0] + temperatureWeights[1] + temperatureWeights[2];
+      double pick = random.nextDouble(total);
+      for (int i = 0; i < TEMPERATURES.length - 1; i++) {
+        pick -= temperatureWeights[i];
+        if (pick < 0) {
+          return TEMPERATURES[i];
+        }
+      }
+      return TEMPERATURES[TEMPERATURES.length - 1];
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.Order;
+import java.time.Duration;
+
+/**
+ * ScheduledOrder is an order together with when it arrives, measured from the start of the run,
+ * and how long after placement the courier picks it up.
+ */
+public record ScheduledOrder(Order order, Duration arrival, Duration pickupDelay) {}
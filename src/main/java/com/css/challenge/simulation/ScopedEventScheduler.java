@@ -0,0 +1,65 @@
+package com.css.challenge.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ScopedEventScheduler is one simulation's view of a scheduler shared by many. It forwards events
+ * to the shared scheduler but tracks only its own, so drain returns as soon as this simulation is
+ * done, whatever the others are doing, and close leaves the shared scheduler running.
+ *
+ * <p>A shared scheduler may run due events on many threads at once. This view runs its own events
+ * one at a time, so a simulation's kitchen never has two of its events writing to it concurrently,
+ * while events of different simulations still run in parallel. The lock is a ReentrantLock rather
+ * than a monitor, so a virtual thread waiting for it does not pin its carrier.
+ */
+class ScopedEventScheduler implements EventScheduler {
+  private final EventScheduler shared;
+  private final Object lock = new Object();
+  private final ReentrantLock serial = new ReentrantLock();
+  private int pending;
+
+  ScopedEventScheduler(EventScheduler shared) {
+    this.shared = shared;
+  }
+
+  @Override
+  public Clock clock() {
+    return shared.clock();
+  }
+
+  @Override
+  public void schedule(Duration delay, Runnable task) {
+    synchronized (lock) {
+      pending++;
+    }
+    shared.schedule(
+        delay,
+        () -> {
+          serial.lock();
+          try {
+            task.run();
+          } finally {
+            serial.unlock();
+            synchronized (lock) {
+              if (--pending == 0) {
+                lock.notifyAll();
+              }
+            }
+          }
+        });
+  }
+
+  @Override
+  public void drain() throws InterruptedException {
+    synchronized (lock) {
+      while (pending > 0) {
+        lock.wait();
+      }
+    }
+  }
+
+  @Override
+  public void close() {}
+}
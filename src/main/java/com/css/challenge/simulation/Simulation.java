@@ -0,0 +1,401 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ColumnarActionLog;
+import com.css.challenge.client.Order;
+import com.css.challenge.metrics.KitchenMetrics;
+import com.css.challenge.service.AdmissionQueue;
+import com.css.challenge.service.DecisionTrace;
+import com.css.challenge.service.KitchenEventLoop;
+import com.css.challenge.service.KitchenManager;
+import com.css.challenge.service.PlacementPolicy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Simulation is the challenge harness: it places one order every {@code rate} and picks each order
+ * up a random {@code [min, max)} after it was placed. Pickup delays come from a per-run random
+ * source, so a seeded simulation is reproducible.
+ */
+public class Simulation {
+  private final Duration rate;
+  private final Duration min;
+  private final Duration max;
+  private boolean singleWriter;
+  private KitchenMetrics metrics;
+  private Long seed;
+  private Duration reapInterval;
+  private int reapBatch;
+  private PlacementPolicy policy;
+  private int admissionCapacity;
+  private AdmissionQueue.Overflow admissionOverflow;
+  private int admissionBatch;
+
+  public Simulation(Duration rate, Duration min, Duration max) {
+    this.rate = rate;
+    this.min = min;
+    this.max = max;
+  }
+
+  /**
+   * singleWriter makes scheduler threads publish commands to a KitchenEventLoop instead of calling
+   * the kitchen directly, so a multi-threaded scheduler never races on kitchen state.
+   */
+  public Simulation singleWriter(boolean singleWriter) {
+    this.singleWriter = singleWriter;
+    return this;
+  }
+
+  /** metrics makes each simulated kitchen report into the given metrics. */
+  public Simulation metrics(KitchenMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
+  /** seed fixes the pickup delays drawn by every run; unseeded runs draw different delays. */
+  public Simulation seed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * reaper discards expired orders every interval while a run is in progress, at most batch per
+   * tick, so dead orders free their slots before placements need them.
+   */
+  public Simulation reaper(Duration interval, int batch) {
+    if (!interval.isPositive() || batch < 1) {
+      throw new IllegalArgumentException("reaper needs a positive interval and batch size");
+    }
+    this.reapInterval = interval;
+    this.reapBatch = batch;
+    return this;
+  }
+
+  /**
+   * policy makes each simulated kitchen choose moves and discards with the given policy, which is
+   * shared by every run. Kitchens are told each order's pickup delay as it is placed.
+   */
+  public Simulation policy(PlacementPolicy policy) {
+    this.policy = policy;
+    return this;
+  }
+
+  /**
+   * admission puts a bounded AdmissionQueue in front of each simulated kitchen: at most capacity
+   * placements wait, overflow decides what happens to the rest, and the queue drains into the
+   * kitchen up to maxBatch commands at a time. The queue's drainer is the kitchen's only writer, so
+   * it takes the place of singleWriter.
+   */
+  public Simulation admission(int capacity, AdmissionQueue.Overflow overflow, int maxBatch) {
+    if (capacity < 1 || maxBatch < 1) {
+      throw new IllegalArgumentException("admission needs a positive capacity and batch size");
+    }
+    this.admissionCapacity = capacity;
+    this.admissionOverflow = overflow;
+    this.admissionBatch = maxBatch;
+    return this;
+  }
+
+  /** run plays the orders through a fresh kitchen on the given scheduler and returns its actions. */
+  public ActionLog run(List<Order> orders, EventScheduler scheduler) throws InterruptedException {
+    return run(orders.iterator(), scheduler);
+  }
+
+  /**
+   * run plays orders as they become available, e.g. from an {@link OrderFeed} filled by a download:
+   * each is taken from the iterator only when it is due to arrive, so the first orders are placed
+   * while later ones are still being read.
+   */
+  public ActionLog run(Iterator<Order> orders, EventScheduler scheduler)
+      throws InterruptedException {
+    return run(schedule(orders), scheduler);
+  }
+
+  /**
+   * run plays the orders as one of several runs sharing this simulation's metrics: the run's
+   * kitchen registers its gauges under the run name and removes them when the run is done.
+   */
+  ActionLog run(List<Order> orders, EventScheduler scheduler, String run)
+      throws InterruptedException {
+    if (metrics == null) {
+      return run(orders, scheduler);
+    }
+    KitchenMetrics runMetrics = metrics.forRun(run);
+    try {
+      return run(schedule(orders.iterator()), scheduler, runMetrics);
+    } finally {
+      runMetrics.unregisterGauges();
+    }
+  }
+
+  /** schedule gives the i-th order its arrival at i * rate and a random pickup delay. */
+  private Stream<ScheduledOrder> schedule(Iterator<Order> orders) {
+    SplittableRandom random = seed != null ? new SplittableRandom(seed) : new SplittableRandom();
+    long spread = max.toMillis() - min.toMillis();
+    Iterator<ScheduledOrder> scheduled =
+        new Iterator<>() {
+          private long index;
+
+          @Override
+          public boolean hasNext() {
+            return orders.hasNext();
+          }
+
+          @Override
+          public ScheduledOrder next() {
+            return new ScheduledOrder(
+                orders.next(),
+                rate.multipliedBy(index++),
+                // Pickup after a random delay between min and max
+                min.plusMillis(spread > 0 ? random.nextLong(spread) : 0));
+          }
+        };
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(scheduled, Spliterator.ORDERED), false);
+  }
+
+  /**
+   * run plays a stream of scheduled orders through a fresh kitchen. Orders are pulled from the
+   * stream one at a time as each arrives, so only orders still waiting for pickup are held in
+   * memory, however long the stream.
+   */
+  public ActionLog run(Stream<ScheduledOrder> orders, EventScheduler scheduler)
+      throws InterruptedException {
+    return run(orders, scheduler, metrics != null ? metrics : new KitchenMetrics());
+  }
+
+  private ActionLog run(
+      Stream<ScheduledOrder> orders, EventScheduler scheduler, KitchenMetrics kitchenMetrics)
+      throws InterruptedException {
+    ActionLog actions = new ColumnarActionLog();
+    KitchenManager manager = new KitchenManager(actions, scheduler.clock(), kitchenMetrics);
+    if (policy != null) {
+      manager.setPolicy(policy);
+    }
+    AdmissionQueue admission =
+        admissionCapacity > 0
+            ? new AdmissionQueue(manager, admissionCapacity, admissionOverflow, admissionBatch)
+            : null;
+    KitchenEventLoop loop =
+        singleWriter && admission == null ? new KitchenEventLoop(manager, 1024) : null;
+
+    // In virtual time, events must not return before their commands have been applied
+    Kitchen kitchen =
+        new Kitchen(manager, loop, admission, scheduler.clock() instanceof VirtualClock);
+
+    Iterator<ScheduledOrder> arrivals = orders.iterator();
+    if (arrivals.hasNext()) {
+      Instant start = scheduler.clock().instant();
+      ScheduledOrder first = arrivals.next();
+      Reaper reaper =
+          reapInterval != null ? new Reaper(reapInterval, reapBatch, scheduler, kitchen) : null;
+      scheduler.schedule(
+          first.arrival(), new Arrivals(first, arrivals, start, scheduler, kitchen, reaper));
+      if (reaper != null) {
+        scheduler.schedule(reapInterval, reaper);
+      }
+    }
+    scheduler.drain();
+    if (loop != null) {
+      loop.close();
+    }
+    if (admission != null) {
+      admission.close();
+    }
+    return actions;
+  }
+
+  /**
+   * Kitchen sends commands to the manager directly, or through its event loop or admission queue.
+   * The loop and queue apply commands on their own thread, stamping actions with the clock as it
+   * reads then; with settle set, each call waits for its commands to be applied (the admission queue
+   * until it is idle), so under a virtual clock they carry the virtual time of the event that issued
+   * them.
+   */
+  private record Kitchen(
+      KitchenManager manager, KitchenEventLoop loop, AdmissionQueue admission, boolean settle) {
+
+    void place(List<ScheduledOrder> due) {
+      if (admission != null) {
+        due.forEach(scheduled -> admission.placeOrder(scheduled.order(), scheduled.pickupDelay()));
+        if (settle) {
+          awaitAdmission();
+        }
+      } else if (loop != null) {
+        List<CompletableFuture<Boolean>> placed = new ArrayList<>(due.size());
+        due.forEach(
+            scheduled -> placed.add(loop.placeOrder(scheduled.order(), scheduled.pickupDelay())));
+        if (settle) {
+          placed.forEach(CompletableFuture::join);
+        }
+      } else if (due.size() == 1) {
+        manager.placeOrder(due.get(0).order(), due.get(0).pickupDelay());
+      } else {
+        manager.placeOrders(
+            due.stream().map(ScheduledOrder::order).toList(),
+            due.stream().map(ScheduledOrder::pickupDelay).toList());
+      }
+    }
+
+    void pickup(Order order) {
+      if (admission == null && loop == null) {
+        missed(order, manager.pickupOrder(order.getId()));
+        return;
+      }
+      CompletableFuture<Boolean> found =
+          admission != null ? admission.pickupOrder(order.getId()) : loop.pickupOrder(order.getId());
+      if (settle) {
+        if (admission != null) {
+          awaitAdmission();
+        } else {
+          found.join();
+        }
+      }
+      if (DecisionTrace.ENABLED) {
+        found.thenAccept(picked -> missed(order, picked));
+      }
+    }
+
+    void reap(int batch) {
+      if (admission != null) {
+        admission.reapExpired(batch);
+        if (settle) {
+          awaitAdmission();
+        }
+      } else if (loop != null) {
+        CompletableFuture<Boolean> reaped = loop.reapExpired(batch);
+        if (settle) {
+          reaped.join();
+        }
+      } else {
+        manager.reapExpired(batch);
+      }
+    }
+
+    /**
+     * awaitAdmission waits for the admission queue to apply everything admitted so far, spilled
+     * placements included. If the event is interrupted, it stops waiting and keeps the flag set.
+     */
+    private void awaitAdmission() {
+      try {
+        admission.awaitIdle();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Arrivals places an order, schedules its pickup and schedules itself for the next arrival;
+   * orders that are already due, like the rest of a burst, are placed in the same event as one
+   * batch. Delays are measured from the run start, so late events do not push later arrivals back.
+   */
+  private record Arrivals(
+      ScheduledOrder first,
+      Iterator<ScheduledOrder> remaining,
+      Instant start,
+      EventScheduler scheduler,
+      Kitchen kitchen,
+      Reaper reaper)
+      implements Runnable {
+
+    @Override
+    public void run() {
+      List<ScheduledOrder> due = new ArrayList<>();
+      due.add(first);
+      ScheduledOrder next = null;
+      while (next == null && remaining.hasNext()) {
+        ScheduledOrder current = remaining.next();
+        if (Duration.between(scheduler.clock().instant(), start.plus(current.arrival()))
+            .isPositive()) {
+          next = current;
+        } else {
+          due.add(current);
+        }
+      }
+      place(due);
+      if (next != null) {
+        // Placing the batch may have taken long enough that the next arrival is due already
+        Duration delay =
+            Duration.between(scheduler.clock().instant(), start.plus(next.arrival()));
+        scheduler.schedule(
+            delay.isNegative() ? Duration.ZERO : delay,
+            new Arrivals(next, remaining, start, scheduler, kitchen, reaper));
+      } else if (reaper != null) {
+        reaper.arrived = true;
+      }
+    }
+
+    private void place(List<ScheduledOrder> due) {
+      for (ScheduledOrder scheduled : due) {
+        if (DecisionTrace.ENABLED) {
+          DecisionTrace.record(DecisionTrace.Event.RECEIVED, scheduled.order().getHandle());
+        }
+        if (reaper != null) {
+          reaper.live.incrementAndGet();
+        }
+      }
+      kitchen.place(due);
+      due.forEach(this::schedulePickup);
+    }
+
+    private void schedulePickup(ScheduledOrder scheduled) {
+      Order order = scheduled.order();
+      scheduler.schedule(
+          scheduled.pickupDelay(),
+          () -> {
+            if (DecisionTrace.ENABLED) {
+              DecisionTrace.record(DecisionTrace.Event.PICKUP_DUE, order.getHandle());
+            }
+            kitchen.pickup(order);
+            if (reaper != null) {
+              reaper.live.decrementAndGet();
+            }
+          });
+    }
+  }
+
+  private static void missed(Order order, boolean found) {
+    if (DecisionTrace.ENABLED && !found) {
+      DecisionTrace.record(DecisionTrace.Event.PICKUP_MISSED, order.getHandle());
+    }
+  }
+
+  /**
+   * Reaper discards a bounded batch of expired orders each tick and reschedules itself until every
+   * order has arrived and had its pickup, so the scheduler still drains at the end of a run.
+   */
+  private static final class Reaper implements Runnable {
+    final AtomicLong live = new AtomicLong();
+    volatile boolean arrived;
+    private final Duration interval;
+    private final int batch;
+    private final EventScheduler scheduler;
+    private final Kitchen kitchen;
+
+    Reaper(Duration interval, int batch, EventScheduler scheduler, Kitchen kitchen) {
+      this.interval = interval;
+      this.batch = batch;
+      this.scheduler = scheduler;
+      this.kitchen = kitchen;
+    }
+
+    @Override
+    public void run() {
+      kitchen.reap(batch);
+      if (!arrived || live.get() > 0) {
+        scheduler.schedule(interval, this);
+      }
+    }
+  }
+}
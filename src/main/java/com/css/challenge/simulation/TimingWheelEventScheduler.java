@@ -0,0 +1,202 @@
+package com.css.challenge.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TimingWheelEventScheduler runs events in wall-clock time on a hierarchical timing wheel. Time is
+ * cut into fixed ticks; each of the LEVELS wheels has WHEEL_SIZE buckets, and a bucket on level n
+ * covers WHEEL_SIZE^n ticks. Scheduling appends to a lock-free inbox and filing an event into its
+ * bucket is O(1); a single ticker thread moves events down a level as their bucket comes due and
+ * fires every event of a tick as one batch. Events may run up to one tick late; events due in the
+ * same tick have no defined order.
+ */
+public class TimingWheelEventScheduler implements EventScheduler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TimingWheelEventScheduler.class);
+
+  static final int WHEEL_BITS = 6;
+  static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+  static final int LEVELS = 4;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+  private static final long SPAN_MASK = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+  private final Clock clock;
+  private final long tickNanos;
+  private final Executor workers;
+  private final long startNanos;
+  private final ConcurrentLinkedQueue<Timer> inbox = new ConcurrentLinkedQueue<>();
+  private final AtomicLong pending = new AtomicLong();
+  private final Object drained = new Object();
+  private final Thread ticker;
+  private volatile boolean running = true;
+
+  // Owned by the ticker thread
+  private final Timer[][] buckets = new Timer[LEVELS][WHEEL_SIZE];
+  private Timer overflow;
+  private long tick;
+
+  private static final class Timer {
+    final long deadline;
+    final Runnable task;
+    Timer next;
+
+    Timer(long deadline, Runnable task) {
+      this.deadline = deadline;
+      this.task = task;
+    }
+  }
+
+  /** Events run on the ticker thread itself, so a kitchen driven by this scheduler has one writer. */
+  public TimingWheelEventScheduler(Duration tick, Clock clock) {
+    this(tick, clock, null);
+  }
+
+  /** Each tick's events are handed to workers as a single batch task. */
+  public TimingWheelEventScheduler(Duration tick, Clock clock, Executor workers) {
+    if (tick.isNegative() || tick.isZero()) {
+      throw new IllegalArgumentException("tick must be positive: " + tick);
+    }
+    this.clock = clock;
+    this.tickNanos = tick.toNanos();
+    this.workers = workers;
+    this.startNanos = System.nanoTime();
+    this.ticker = new Thread(this::loop, "timing-wheel");
+    this.ticker.setDaemon(true);
+    this.ticker.start();
+  }
+
+  @Override
+  public Clock clock() {
+    return clock;
+  }
+
+  @Override
+  public void schedule(Duration delay, Runnable task) {
+    pending.incrementAndGet();
+    long due = System.nanoTime() - startNanos + Math.max(delay.toNanos(), 0);
+    // Round up so an event never fires before its delay has elapsed
+    inbox.add(new Timer((due + tickNanos - 1) / tickNanos, task));
+  }
+
+  @Override
+  public void drain() throws InterruptedException {
+    synchronized (drained) {
+      while (pending.get() > 0) {
+        drained.wait();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(ticker);
+    try {
+      ticker.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void loop() {
+    while (running) {
+      long now = (System.nanoTime() - startNanos) / tickNanos;
+      while (tick <= now && running) {
+        advance();
+      }
+      LockSupport.parkNanos(startNanos + tick * tickNanos - System.nanoTime());
+    }
+  }
+
+  /** advance files new events, cascades the buckets that start at this tick and fires its events. */
+  private void advance() {
+    Timer timer;
+    while ((timer = inbox.poll()) != null) {
+      file(timer);
+    }
+    if ((tick & SPAN_MASK) == 0) {
+      Timer far = overflow;
+      overflow = null;
+      refile(far);
+    }
+    for (int level = LEVELS - 1; level > 0; level--) {
+      long shift = (long) WHEEL_BITS * level;
+      if ((tick & ((1L << shift) - 1)) == 0) {
+        int slot = (int) ((tick >>> shift) & WHEEL_MASK);
+        Timer cascaded = buckets[level][slot];
+        buckets[level][slot] = null;
+        refile(cascaded);
+      }
+    }
+
+    int slot = (int) (tick & WHEEL_MASK);
+    Timer due = buckets[0][slot];
+    buckets[0][slot] = null;
+    tick++;
+    if (due != null) {
+      fire(due);
+    }
+  }
+
+  private void refile(Timer timer) {
+    while (timer != null) {
+      Timer next = timer.next;
+      file(timer);
+      timer = next;
+    }
+  }
+
+  /**
+   * file puts the timer on the lowest level whose current revolution contains its deadline, i.e.
+   * the level above which deadline and current tick agree. Past deadlines fire at this tick.
+   */
+  private void file(Timer timer) {
+    long deadline = Math.max(timer.deadline, tick);
+    for (int level = 0; level < LEVELS; level++) {
+      long shift = (long) WHEEL_BITS * (level + 1);
+      if ((deadline >>> shift) == (tick >>> shift)) {
+        int slot = (int) ((deadline >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        timer.next = buckets[level][slot];
+        buckets[level][slot] = timer;
+        return;
+      }
+    }
+    timer.next = overflow;
+    overflow = timer;
+  }
+
+  private void fire(Timer due) {
+    List<Runnable> batch = new ArrayList<>();
+    for (Timer timer = due; timer != null; timer = timer.next) {
+      batch.add(timer.task);
+    }
+    if (workers == null) {
+      run(batch);
+    } else {
+      workers.execute(() -> run(batch));
+    }
+  }
+
+  private void run(List<Runnable> batch) {
+    for (Runnable task : batch) {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        LOGGER.error("Scheduled event failed", e);
+      }
+    }
+    if (pending.addAndGet(-batch.size()) == 0) {
+      synchronized (drained) {
+        drained.notifyAll();
+      }
+    }
+  }
+}
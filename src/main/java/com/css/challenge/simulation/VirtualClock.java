@@ -0,0 +1,62 @@
+package com.css.challenge.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/** VirtualClock is a clock that only moves when the simulation advances it. */
+public class VirtualClock extends Clock {
+  private volatile Instant now;
+
+  public VirtualClock(Instant start) {
+    this.now = start;
+  }
+
+  /** advanceTo moves the clock forward. Virtual time never runs backwards. */
+  public void advanceTo(Instant instant) {
+    if (instant.isBefore(now)) {
+      throw new IllegalArgumentException("cannot move clock back from " + now + " to " + instant);
+    }
+    now = instant;
+  }
+
+  @Override
+  public Instant instant() {
+    return now;
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return ZoneOffset.UTC;
+  }
+
+  /** withZone returns a view of this clock in another zone, still reading the same virtual instant. */
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return zone.equals(ZoneOffset.UTC) ? this : new Zoned(zone);
+  }
+
+  private final class Zoned extends Clock {
+    private final ZoneId zone;
+
+    private Zoned(ZoneId zone) {
+      this.zone = zone;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return VirtualClock.this.withZone(zone);
+    }
+  }
+}
@@ -1,11 +1,18 @@
 package com.css.challenge;
 
+import com.css.challenge.simulation.ClockMode;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 public class MainTest {
 
     @Test
@@ -28,4 +35,19 @@ public class MainTest {
         // You can also assert things like actions, logs, etc. if you refactor to make them accessible
     }
 
+    @Test
+    public void testOfflineRunWritesActions() throws IOException {
+        Path out = Files.createTempFile("actions", ".json");
+        Main main = new Main();
+        main.problemFile = Paths.get("src/test/resources/largeOrders.json");
+        main.outActions = out;
+        main.clock = ClockMode.VIRTUAL;
+
+        main.run();
+
+        JsonNode solution = new ObjectMapper().readTree(out.toFile());
+        assertEquals(500_000, solution.get("options").get("rate").asLong());
+        assertTrue(solution.get("actions").size() >= 2 * 48, "Every order is placed and then picked up or discarded");
+        Files.delete(out);
+    }
 }
@@ -0,0 +1,190 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncClientTest {
+
+    private static final String ORDERS = "[{\"id\":\"a\",\"name\":\"Soup\",\"temp\":\"hot\",\"freshness\":30}]";
+
+    private HttpServer server;
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicReference<String> submitted = new AtomicReference<>();
+    private final AtomicReference<String> submittedEncoding = new AtomicReference<>();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/interview/challenge/new", exchange -> {
+            requests.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("x-test-id", "t" + requests.get());
+            respond(exchange, ORDERS);
+        });
+        server.createContext("/interview/challenge/solve", exchange -> {
+            requests.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            InputStream body = exchange.getRequestBody();
+            submittedEncoding.set(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            if ("gzip".equals(submittedEncoding.get())) {
+                body = new GZIPInputStream(body);
+            }
+            submitted.set(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            respond(exchange, "ok " + exchange.getRequestHeaders().getFirst("x-test-id"));
+        });
+        server.createContext("/slow/interview/challenge/new", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testFetchesGzippedProblem() throws Exception {
+        try (AsyncClient client = client("", 0)) {
+            Problem problem = client.newProblem("", 1).get();
+            assertEquals("t1", problem.getTestId());
+            assertEquals("a", problem.getOrders().get(0).getId());
+        }
+    }
+
+    @Test
+    public void testRetriesServerErrorsWithBackoff() throws Exception {
+        failuresLeft.set(2);
+        try (AsyncClient client = client("", 2)) {
+            Problem problem = client.newProblem("", 1).get();
+            assertEquals(3, requests.get());
+            assertEquals("t3", problem.getTestId());
+        }
+    }
+
+    @Test
+    public void testGivesUpAfterBoundedRetries() {
+        failuresLeft.set(10);
+        try (AsyncClient client = client("", 1)) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> client.newProblem("", 1).get());
+            assertTrue(failure.getCause().getMessage().contains("503"));
+            assertEquals(2, requests.get());
+        }
+    }
+
+    @Test
+    public void testRequestTimeout() {
+        try (AsyncClient client = new AsyncClient(endpoint() + "/slow", "token", Duration.ofMillis(200), 0, Duration.ofMillis(10), true)) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> client.newProblem("", 1).get());
+            assertTrue(failure.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testSubmitsGzippedSolution() throws Exception {
+        ColumnarActionLog actions = new ColumnarActionLog();
+        actions.append(10, "a", ActionType.PLACE);
+        actions.append(20, "a", ActionType.DISCARD);
+        try (AsyncClient client = client("", 0)) {
+            String result = client.solveProblem("t9", Duration.ofMillis(500), Duration.ofSeconds(4), Duration.ofSeconds(8), actions).get();
+            assertEquals("ok t9", result);
+        }
+        assertEquals("gzip", submittedEncoding.get());
+        JsonNode body = new ObjectMapper().readTree(submitted.get());
+        assertEquals(500_000, body.get("options").get("rate").asLong());
+        assertEquals("discard", body.get("actions").get(1).get("action").asText());
+    }
+
+    @Test
+    public void testSolutionIsNotResubmittedAfterAServerError() {
+        failuresLeft.set(1);
+        try (AsyncClient client = client("", 2)) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> client.solveProblem("t9",
+                    Duration.ofMillis(500), Duration.ofSeconds(4), Duration.ofSeconds(8), new ColumnarActionLog()).get());
+            assertTrue(failure.getCause().getMessage().contains("503"));
+            assertEquals(1, requests.get());
+        }
+    }
+
+    @Test
+    public void testSubmitsUncompressedByDefault() throws Exception {
+        try (AsyncClient client = new AsyncClient(endpoint(), "token")) {
+            client.solveProblem("t9", Duration.ofMillis(500), Duration.ofSeconds(4), Duration.ofSeconds(8),
+                    new ColumnarActionLog()).get();
+        }
+        assertNull(submittedEncoding.get());
+        assertTrue(submitted.get().contains("\"actions\""), submitted.get());
+    }
+
+    @Test
+    public void testManyProblemsInFlight() throws Exception {
+        try (AsyncClient client = client("", 0)) {
+            List<CompletableFuture<Problem>> inFlight = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                inFlight.add(client.newProblem("", i + 1));
+            }
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).get();
+            assertEquals(16, requests.get());
+        }
+    }
+
+    private AsyncClient client(String path, int retries) {
+        return new AsyncClient(endpoint() + path, "token", Duration.ofSeconds(5), retries, Duration.ofMillis(10), true);
+    }
+
+    private String endpoint() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(200, gzipped.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            gzipped.writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientTest {
+
+    private static final String ORDERS = "[{\"id\":\"a\",\"name\":\"Soup\",\"temp\":\"hot\",\"freshness\":30},"
+            + "{\"id\":\"b\",\"name\":\"Ice\",\"temp\":\"COLD\",\"freshness\":60}]";
+
+    private HttpServer server;
+    private final AtomicReference<String> submitted = new AtomicReference<>();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/interview/challenge/new", exchange -> {
+            exchange.getResponseHeaders().add("x-test-id", "t1");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(ORDERS.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/interview/challenge/solve", exchange -> {
+            submitted.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] result = ("ok " + exchange.getRequestHeaders().getFirst("x-test-id")).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, result.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(result);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testNewProblemStreamsOrdersToCallback() throws IOException {
+        List<String> seen = new ArrayList<>();
+        Problem problem = client().newProblem("", 1, order -> seen.add(order.getId()));
+
+        assertEquals("t1", problem.getTestId());
+        assertEquals(List.of("a", "b"), seen);
+        assertEquals(Temperature.COLD, problem.getOrders().get(1).getTemperature());
+    }
+
+    @Test
+    public void testSolveProblemStreamsSolutionBody() throws IOException {
+        ColumnarActionLog actions = new ColumnarActionLog();
+        actions.append(10, "a", ActionType.PLACE);
+        actions.append(20, "a", ActionType.PICKUP);
+
+        String result = client().solveProblem("t1", Duration.ofMillis(500), Duration.ofSeconds(4), Duration.ofSeconds(8), actions);
+
+        assertEquals("ok t1", result);
+        JsonNode body = new ObjectMapper().readTree(submitted.get());
+        assertEquals(4_000_000, body.get("options").get("min").asLong());
+        assertEquals("pickup", body.get("actions").get(1).get("action").asText());
+    }
+
+    @Test
+    public void testParseRejectsNonArray() {
+        assertThrows(IOException.class,
+                () -> Order.parse(new ByteArrayInputStream("{\"id\":\"a\"}".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private Client client() {
+        return new Client("http://localhost:" + server.getAddress().getPort(), "token");
+    }
+}
@@ -0,0 +1,101 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarActionLogTest {
+
+    @Test
+    public void testJsonMatchesActionSerialization() throws IOException {
+        ColumnarActionLog log = new ColumnarActionLog();
+        List<Action> expected = new ArrayList<>();
+        ActionType[] types = ActionType.values();
+        for (int i = 0; i < 40_000; i++) {
+            Action action = new Action(1_700_000_000_000_000L + i, "o" + (i % 97), types[i % types.length]);
+            log.append(action.getTimestamp(), action.getId(), action.getAction());
+            expected.add(action);
+        }
+
+        StringWriter streamed = new StringWriter();
+        try (JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(streamed)) {
+            log.writeJson(generator);
+        }
+
+        assertEquals(new ObjectMapper().writeValueAsString(expected), streamed.toString());
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        ColumnarActionLog log = new ColumnarActionLog();
+        log.append(1, "a", ActionType.PLACE);
+        log.append(2, "b", ActionType.PLACE);
+        log.append(3, "a", ActionType.MOVE);
+        log.append(4, "b", ActionType.DISCARD);
+        log.append(5, "a", ActionType.PICKUP);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.writeBinary(out);
+        ColumnarActionLog read = ColumnarActionLog.readBinary(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(log.toList().toString(), read.toList().toString());
+    }
+
+    @Test
+    public void testConcurrentAppendsAreAllRecorded() throws InterruptedException {
+        ColumnarActionLog log = new ColumnarActionLog();
+        int threads = 8;
+        int perThread = 50_000;
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int writer = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    log.append(i, writer + "-" + (i % 100), ActionType.PLACE);
+                }
+            });
+            writers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : writers) {
+            thread.join();
+        }
+
+        assertEquals(threads * perThread, log.size());
+        Set<String> ids = new HashSet<>();
+        log.forEach((timestamp, id, action) -> ids.add(id));
+        assertEquals(threads * 100, ids.size());
+    }
+
+    @Test
+    public void testAppendAllMatchesAppendsAcrossChunks() {
+        ColumnarActionLog single = new ColumnarActionLog();
+        ColumnarActionLog bulk = new ColumnarActionLog();
+        ActionType[] types = ActionType.values();
+        String[] ids = new String[1_000];
+        ActionType[] actions = new ActionType[ids.length];
+        // 40 batches of 999 cross the 16384-action chunk boundaries mid-batch
+        for (int batch = 0; batch < 40; batch++) {
+            for (int i = 0; i < 999; i++) {
+                ids[i] = "o" + (batch * 999 + i) % 1_500;
+                actions[i] = types[i % types.length];
+                single.append(batch, ids[i], actions[i]);
+            }
+            bulk.appendAll(batch, ids, actions, 999);
+        }
+
+        assertEquals(single.size(), bulk.size());
+        assertEquals(single.toList().toString(), bulk.toList().toString());
+    }
+}
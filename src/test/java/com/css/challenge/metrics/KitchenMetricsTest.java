@@ -0,0 +1,81 @@
+package com.css.challenge.metrics;
+
+import com.css.challenge.client.ColumnarActionLog;
+import com.css.challenge.service.KitchenManager;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Map;
+import java.util.Random;
+
+import static com.css.challenge.util.TestUtils.createOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KitchenMetricsTest {
+
+    @Test
+    public void testHistogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(7);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + (long) (Math.abs(random.nextGaussian()) * 1_000_000);
+            histogram.record(values[i]);
+        }
+        java.util.Arrays.sort(values);
+
+        for (double q : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            long reported = histogram.percentile(q);
+            assertTrue(reported >= exact && reported <= exact + exact / 16 + 1, q + ": " + exact + " vs " + reported);
+        }
+        assertEquals(values[values.length - 1], histogram.max());
+        assertEquals(values.length, histogram.count());
+    }
+
+    @Test
+    public void testBucketBoundsAreContiguous() {
+        for (int i = 1; i < 900; i++) {
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.lowerBound(i)));
+            assertEquals(i - 1, LatencyHistogram.index(LatencyHistogram.lowerBound(i) - 1));
+        }
+    }
+
+    @Test
+    public void testKitchenCountersAndOccupancy() {
+        KitchenMetrics metrics = new KitchenMetrics();
+        KitchenManager kitchen = new KitchenManager(new ColumnarActionLog(), Clock.systemUTC(), metrics);
+        for (int i = 0; i < 6; i++) {
+            kitchen.placeOrder(createOrder("h" + i, "Soup", "hot", 100));
+        }
+        kitchen.placeOrder(createOrder("r1", "Bread", "room", 100));
+        kitchen.pickupOrder("h0");
+        kitchen.pickupOrder("missing");
+
+        assertEquals(7, metrics.getPlaced());
+        assertEquals(1, metrics.getPickedUp());
+        assertEquals(1, metrics.getPickupMisses());
+        assertEquals(Map.of("heater", 5, "cooler", 0, "shelf", 1), metrics.getOccupancy());
+        assertEquals(7, metrics.placeLatency().count());
+        assertEquals(2, metrics.pickupLatency().count());
+    }
+
+    @Test
+    public void testScrapeEndpointServesTextFormat() throws IOException {
+        KitchenMetrics metrics = new KitchenMetrics();
+        KitchenManager kitchen = new KitchenManager(new ColumnarActionLog(), Clock.systemUTC(), metrics);
+        kitchen.placeOrder(createOrder("c1", "Ice Cream", "cold", 100));
+
+        try (MetricsHttpServer server = new MetricsHttpServer(0, metrics);
+             InputStream in = URI.create("http://localhost:" + server.port() + "/metrics").toURL().openStream()) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(body.contains("kitchen_actions_total{action=\"place\"} 1\n"), body);
+            assertTrue(body.contains("kitchen_storage_occupancy{storage=\"cooler\"} 1\n"), body);
+            assertTrue(body.contains("kitchen_place_latency_seconds_count 1\n"), body);
+        }
+    }
+}
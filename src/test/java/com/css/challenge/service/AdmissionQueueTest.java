@@ -0,0 +1,168 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Order;
+import com.css.challenge.metrics.KitchenMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.css.challenge.util.TestUtils.createOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionQueueTest {
+
+    private static final Duration DELAY = Duration.ofSeconds(5);
+
+    /*
+        Action log whose first append waits for release, holding the drainer mid-batch so the queue fills up.
+        The wait is bounded, so a failed assertion before the release cannot hang the test.
+     */
+    private static final class GatedLog implements ActionLog {
+        final List<Action> actions = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void append(long timestamp, String id, ActionType action) {
+            entered.countDown();
+            try {
+                released.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            actions.add(new Action(timestamp, id, action));
+        }
+
+        @Override
+        public int size() {
+            return actions.size();
+        }
+
+        @Override
+        public void forEach(Visitor visitor) {
+            for (Action a : List.copyOf(actions)) {
+                visitor.visit(a.getTimestamp(), a.getId(), a.getAction());
+            }
+        }
+
+        List<String> placed() {
+            return actions.stream().filter(a -> a.getAction() == ActionType.PLACE).map(Action::getId).toList();
+        }
+    }
+
+    private final GatedLog log = new GatedLog();
+    private final KitchenMetrics metrics = new KitchenMetrics();
+    private final KitchenManager kitchen = new KitchenManager(log, Clock.systemUTC(), metrics);
+
+    @Test
+    public void testShedTurnsAwayOrdersBeyondCapacity() throws InterruptedException {
+        try (AdmissionQueue queue = new AdmissionQueue(kitchen, 2, AdmissionQueue.Overflow.SHED)) {
+            holdDrainer(queue);
+            assertTrue(queue.placeOrder(order("a"), DELAY));
+            assertTrue(queue.placeOrder(order("b"), DELAY));
+            assertFalse(queue.placeOrder(order("c"), DELAY));
+            assertEquals(2, queue.depth());
+            assertEquals(2, (int) metrics.getQueueDepth().get("admission"));
+
+            log.released.countDown();
+            queue.awaitIdle();
+        }
+        assertEquals(List.of("first", "a", "b"), log.placed());
+        assertEquals(1, metrics.getShed());
+        assertEquals(3, metrics.admissionWait().count());
+    }
+
+    @Test
+    public void testSpillDefersOrdersUntilThereIsRoom() throws Exception {
+        try (AdmissionQueue queue = new AdmissionQueue(kitchen, 2, AdmissionQueue.Overflow.SPILL, 1)) {
+            holdDrainer(queue);
+            for (String id : List.of("a", "b", "c", "d")) {
+                assertTrue(queue.placeOrder(order(id), DELAY));
+            }
+            assertEquals(2, queue.depth());
+            assertEquals(2, queue.spilled());
+            // d's courier comes before d leaves the spill queue, so d is never placed
+            CompletableFuture<Boolean> pickup = queue.pickupOrder("d");
+            assertEquals(1, queue.spilled());
+
+            log.released.countDown();
+            assertFalse(pickup.get(5, TimeUnit.SECONDS));
+            queue.awaitIdle();
+            assertEquals(0, queue.depth());
+            assertEquals(0, queue.spilled());
+        }
+        assertEquals(List.of("first", "a", "b", "c"), log.placed());
+        assertEquals(2, metrics.getSpilled());
+        assertEquals(1, metrics.getPickupMisses());
+    }
+
+    @Test
+    public void testBlockHoldsProducersUntilTheQueueDrains() throws Exception {
+        try (AdmissionQueue queue = new AdmissionQueue(kitchen, 1, AdmissionQueue.Overflow.BLOCK)) {
+            holdDrainer(queue);
+            assertTrue(queue.placeOrder(order("a"), DELAY));
+            CompletableFuture<Boolean> blocked =
+                    CompletableFuture.supplyAsync(() -> queue.placeOrder(order("b"), DELAY));
+            Thread.sleep(100);
+            assertFalse(blocked.isDone());
+
+            log.released.countDown();
+            assertTrue(blocked.get(5, TimeUnit.SECONDS));
+            assertTrue(queue.pickupOrder("b").get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of("first", "a", "b"), log.placed());
+        assertEquals(0, metrics.getShed());
+    }
+
+    @Test
+    public void testDrainsInBatchesInArrivalOrder() throws Exception {
+        List<CompletableFuture<Boolean>> pickups = new ArrayList<>();
+        try (AdmissionQueue queue = new AdmissionQueue(kitchen, 64, AdmissionQueue.Overflow.SHED, 8)) {
+            holdDrainer(queue);
+            for (int i = 0; i < 20; i++) {
+                queue.placeOrder(order("o" + i), DELAY);
+                if (i % 5 == 4) pickups.add(queue.pickupOrder("o" + (i - 2)));
+            }
+            log.released.countDown();
+        }
+        for (CompletableFuture<Boolean> pickup : pickups) {
+            assertTrue(pickup.get());
+        }
+        // Every action of a batched run shares the batch's timestamp
+        long distinct = log.actions.stream().map(Action::getTimestamp).distinct().count();
+        assertTrue(distinct < log.actions.size(), log.actions.toString());
+        assertEquals(21, metrics.getPlaced());
+        assertEquals(4, metrics.getPickedUp());
+    }
+
+    @Test
+    public void testClosedQueueRejectsSubmissions() {
+        AdmissionQueue queue = new AdmissionQueue(kitchen, 1, AdmissionQueue.Overflow.BLOCK);
+        log.released.countDown();
+        queue.close();
+        assertThrows(IllegalStateException.class, () -> queue.placeOrder(order("a"), DELAY));
+        assertThrows(IllegalStateException.class, () -> queue.pickupOrder("a"));
+    }
+
+    /*
+        Admits one order and waits until the drainer is stuck logging it.
+     */
+    private void holdDrainer(AdmissionQueue queue) throws InterruptedException {
+        queue.placeOrder(order("first"), DELAY);
+        assertTrue(log.entered.await(5, TimeUnit.SECONDS));
+    }
+
+    private static Order order(String id) {
+        return createOrder(id, "Bread", "room", 300);
+    }
+}
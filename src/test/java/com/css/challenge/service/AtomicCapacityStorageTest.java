@@ -0,0 +1,88 @@
+package com.css.challenge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.css.challenge.util.TestUtils.createOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AtomicCapacityStorageTest {
+
+    @Test
+    public void testConcurrentAddsNeverExceedCapacity() throws InterruptedException {
+        AtomicCapacityStorage heater = new AtomicCapacityStorage("Heater", "hot", 6);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    if (heater.addOrder(createOrder(thread + "-" + i, "Soup", "hot", 100))) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(6, accepted.get());
+        assertEquals(6, heater.size());
+        assertEquals(6, heater.getAllOrders().size());
+        assertTrue(heater.isFull());
+    }
+
+    @Test
+    public void testDuplicateIdIsRejectedWithoutTakingASlot() {
+        AtomicCapacityStorage cooler = new AtomicCapacityStorage("Cooler", "cold", 2);
+        assertTrue(cooler.addOrder(createOrder("c1", "Ice Cream", "cold", 100)));
+        assertFalse(cooler.addOrder(createOrder("c1", "Ice Cream", "cold", 100)));
+        assertEquals(1, cooler.size());
+        assertTrue(cooler.removeOrderById("c1"));
+        assertFalse(cooler.removeOrderById("c1"));
+        assertEquals(0, cooler.size());
+    }
+
+    @Test
+    public void testMoveFromShelf() {
+        FreshnessShelfStorage shelf = new FreshnessShelfStorage("Shelf", "room", 12, Clock.systemUTC());
+        AtomicCapacityStorage heater = new AtomicCapacityStorage("Heater", "hot", 1);
+        shelf.addOrder(createOrder("h1", "Soup", "hot", 100));
+        shelf.addOrder(createOrder("h2", "Stew", "hot", 100));
+
+        assertTrue(heater.moveFrom(shelf, "h1"));
+        assertFalse(heater.moveFrom(shelf, "h2"), "Heater is full");
+        assertFalse(heater.moveFrom(shelf, "missing"));
+
+        assertTrue(heater.getOrderById("h1").isPresent());
+        assertTrue(shelf.getOrderById("h1").isEmpty());
+        assertTrue(shelf.getOrderById("h2").isPresent());
+    }
+
+    @Test
+    public void testMoveOfAHeldIdTakesNoSlot() {
+        FreshnessShelfStorage shelf = new FreshnessShelfStorage("Shelf", "room", 12, Clock.systemUTC());
+        AtomicCapacityStorage heater = new AtomicCapacityStorage("Heater", "hot", 2);
+        assertTrue(heater.addOrder(createOrder("h1", "Soup", "hot", 100)));
+        shelf.addOrder(createOrder("h1", "Stew", "hot", 100));
+
+        assertFalse(heater.moveFrom(shelf, "h1"));
+        assertEquals(1, heater.size());
+        assertFalse(heater.isFull());
+        assertTrue(shelf.getOrderById("h1").isPresent(), "The shelf keeps its order");
+    }
+}
@@ -0,0 +1,164 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.Order;
+import com.css.challenge.metrics.KitchenMetrics;
+import com.css.challenge.simulation.ExecutorEventScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class DecisionTraceTest {
+
+    private final Map<Integer, String> names = new HashMap<>();
+    private final IntFunction<String> name = handle -> names.getOrDefault(handle, "#" + handle);
+
+    // The trace is compiled out unless enabled, so these run only under -Dchallenge.trace=true (gradle tracedTest)
+    private static final String TRACED = "Tracing is disabled";
+
+    @BeforeEach
+    void setUp() {
+        DecisionTrace.clear();
+    }
+
+    private Order order(String id, String temp, int freshness) {
+        Order order = new Order(id, "Item " + id, temp, freshness, names.size());
+        names.put(order.getHandle(), id);
+        return order;
+    }
+
+    @Test
+    public void testRecordsPlacementDecisions() throws IOException {
+        assumeTrue(DecisionTrace.ENABLED, TRACED);
+        KitchenManager kitchen = new KitchenManager(ActionLog.of(new ArrayList<>()), Clock.systemUTC(), 1, 1, 1,
+                new KitchenMetrics());
+        kitchen.placeOrder(order("h1", "hot", 100));
+        kitchen.placeOrder(order("h2", "hot", 10));
+        kitchen.placeOrder(order("h3", "hot", 100));
+        kitchen.pickupOrder("h3");
+
+        StringBuilder text = new StringBuilder();
+        DecisionTrace.dump(text, name);
+        List<String> lines = text.toString().lines().map(line -> line.substring(line.indexOf("ms ") + 3)).toList();
+        String thread = Thread.currentThread().getName();
+        assertEquals(List.of(
+                String.format("%-20s %-15s %s", thread, "IDEAL_FULL", "h2 at=heater"),
+                String.format("%-20s %-15s %s", thread, "IDEAL_FULL", "h3 at=heater"),
+                String.format("%-20s %-15s %s", thread, "SHELF_FULL", "h3"),
+                String.format("%-20s %-15s %s", thread, "DISCARD_VICTIM", "h3 other=h2 at=shelf reason=STALEST"),
+                String.format("%-20s %-15s %s", thread, "PICKED_UP", "h3 at=shelf")), lines);
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        assumeTrue(DecisionTrace.ENABLED, TRACED);
+        Order order = order("o1", "cold", 10);
+        DecisionTrace.record(DecisionTrace.Event.RECEIVED, order.getHandle());
+        DecisionTrace.record(DecisionTrace.Event.MOVE_CANDIDATE, order.getHandle(), order.getHandle(), (byte) 1,
+                DecisionTrace.Reason.STALEST);
+
+        StringBuilder expected = new StringBuilder();
+        DecisionTrace.dump(expected, name);
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        DecisionTrace.write(file, name);
+        StringBuilder decoded = new StringBuilder();
+        DecisionTrace.decode(new ByteArrayInputStream(file.toByteArray()), decoded);
+
+        assertEquals(expected.toString(), decoded.toString());
+        assertTrue(decoded.toString().contains("MOVE_CANDIDATE  o1 other=o1 at=cooler reason=STALEST"));
+    }
+
+    @Test
+    public void testEachThreadKeepsItsMostRecentRecords() throws InterruptedException {
+        assumeTrue(DecisionTrace.ENABLED, TRACED);
+        int perThread = DecisionTrace.RECORDS_PER_THREAD + 100;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    DecisionTrace.record(DecisionTrace.Event.RECEIVED, i, thread, (byte) -1, DecisionTrace.Reason.NONE);
+                }
+            }, "tracer-" + t));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<DecisionTrace.Record> records = DecisionTrace.snapshot().stream()
+                .filter(record -> record.thread().startsWith("tracer-"))
+                .toList();
+        assertEquals(4 * DecisionTrace.RECORDS_PER_THREAD, records.size());
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            List<Integer> handles = records.stream()
+                    .filter(record -> record.other() == thread)
+                    .map(DecisionTrace.Record::handle)
+                    .toList();
+            assertEquals(100, (int) handles.get(0), "The oldest records were overwritten");
+            assertEquals(perThread - 1, (int) handles.get(handles.size() - 1));
+        }
+    }
+
+    @Test
+    public void testRingsOfEndedThreadsAreDropped() throws InterruptedException {
+        assumeTrue(DecisionTrace.ENABLED, TRACED);
+        DecisionTrace.record(DecisionTrace.Event.RECEIVED, 0);
+        int live = DecisionTrace.rings();
+
+        int threads = DecisionTrace.RETIRED_RINGS + 10;
+        for (int t = 0; t < threads; t++) {
+            Thread thread = Thread.ofPlatform().name("short-" + t)
+                    .start(() -> DecisionTrace.record(DecisionTrace.Event.RECEIVED, 1));
+            thread.join();
+        }
+
+        List<DecisionTrace.Record> records = DecisionTrace.snapshot().stream()
+                .filter(record -> record.thread().startsWith("short-"))
+                .toList();
+        assertEquals(DecisionTrace.RETIRED_RINGS, records.size());
+        assertEquals("short-" + (threads - 1), records.get(records.size() - 1).thread());
+        assertEquals(live + DecisionTrace.RETIRED_RINGS, DecisionTrace.rings());
+
+        DecisionTrace.clear();
+        assertEquals(live, DecisionTrace.rings());
+    }
+
+    @Test
+    public void testVirtualThreadSchedulerRefusesToRunTraced() {
+        assumeTrue(DecisionTrace.ENABLED, TRACED);
+        assertThrows(IllegalStateException.class, () -> ExecutorEventScheduler.virtualThreads(Clock.systemUTC()));
+    }
+
+    @Test
+    public void testRecordsNothingWhenDisabled() throws IOException {
+        assumeFalse(DecisionTrace.ENABLED, "Tracing is enabled");
+        int rings = DecisionTrace.rings();
+        KitchenManager kitchen = new KitchenManager(ActionLog.of(new ArrayList<>()), Clock.systemUTC(), 1, 1, 1,
+                new KitchenMetrics());
+        kitchen.placeOrder(order("h1", "hot", 100));
+        kitchen.placeOrder(order("h2", "hot", 10));
+        kitchen.placeOrder(order("h3", "hot", 100));
+        DecisionTrace.record(DecisionTrace.Event.RECEIVED, 0);
+
+        assertTrue(DecisionTrace.snapshot().isEmpty());
+        StringBuilder text = new StringBuilder();
+        DecisionTrace.dump(text, name);
+        assertEquals("", text.toString());
+        assertEquals(rings, DecisionTrace.rings());
+    }
+}
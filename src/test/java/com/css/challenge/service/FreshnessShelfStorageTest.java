@@ -0,0 +1,93 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static com.css.challenge.util.TestUtils.createOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreshnessShelfStorageTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    public void testStalestOrderAccountsForShelfDecay() {
+        FreshnessShelfStorage shelf = new FreshnessShelfStorage("Shelf", "room", 12, clock);
+        shelf.addOrder(createOrder("room", "Bread", "room", 50));
+        shelf.addOrder(createOrder("hot", "Soup", "hot", 80)); // decays twice as fast: 40s left
+
+        assertEquals("hot", shelf.getStalestOrder().get().getId());
+
+        shelf.removeOrderById("hot");
+        assertEquals("room", shelf.getStalestOrder().get().getId());
+    }
+
+    @Test
+    public void testStalestOrderPerTemperature() {
+        FreshnessShelfStorage shelf = new FreshnessShelfStorage("Shelf", "room", 12, clock);
+        shelf.addOrder(createOrder("hot1", "Soup", "hot", 80));
+        shelf.addOrder(createOrder("hot2", "Stew", "hot", 60));
+        shelf.addOrder(createOrder("cold1", "Ice", "cold", 90));
+        shelf.addOrder(createOrder("room1", "Bread", "room", 10));
+
+        assertEquals("hot2", shelf.getStalestOrder(Temperature.HOT).get().getId());
+        assertEquals("cold1", shelf.getStalestOrder(Temperature.COLD).get().getId());
+        assertEquals("room1", shelf.getStalestOrder().get().getId());
+
+        shelf.removeOrderById("cold1");
+        assertFalse(shelf.hasOrders(Temperature.COLD));
+        assertTrue(shelf.getStalestOrder(Temperature.COLD).isEmpty());
+        assertEquals(3, shelf.size());
+    }
+
+    @Test
+    public void testCapacityAndDuplicates() {
+        FreshnessShelfStorage shelf = new FreshnessShelfStorage("Shelf", "room", 2, clock);
+        assertTrue(shelf.addOrder(createOrder("a", "A", "room", 10)));
+        assertFalse(shelf.addOrder(createOrder("a", "A", "room", 10)));
+        assertTrue(shelf.addOrder(createOrder("b", "B", "room", 10)));
+        assertTrue(shelf.isFull());
+        assertFalse(shelf.addOrder(createOrder("c", "C", "room", 10)));
+        assertEquals(2, shelf.getAllOrders().size());
+    }
+
+    @Test
+    public void testHeapMatchesLinearScanUnderRandomRemovals() {
+        Random random = new Random(42);
+        FreshnessShelfStorage shelf = new FreshnessShelfStorage("Shelf", "room", 64, clock);
+        List<Order> expected = new ArrayList<>();
+        String[] temps = {"hot", "cold", "room"};
+
+        for (int i = 0; i < 2_000; i++) {
+            if (expected.size() < 64 && random.nextBoolean()) {
+                Order order = createOrder("o" + i, "Item" + i, temps[random.nextInt(3)], 1 + random.nextInt(300));
+                assertTrue(shelf.addOrder(order));
+                expected.add(order);
+            } else if (!expected.isEmpty()) {
+                Order removed = expected.remove(random.nextInt(expected.size()));
+                assertTrue(random.nextBoolean() ? shelf.removeOrder(removed) : shelf.removeOrderById(removed.getId()));
+            }
+
+            Order stalest = expected.stream().min(Comparator.comparingDouble(this::remainingSeconds)).orElse(null);
+            Order actual = shelf.getStalestOrder().orElse(null);
+            if (stalest == null) {
+                assertNull(actual);
+            } else {
+                assertEquals(remainingSeconds(stalest), remainingSeconds(actual), 0.0);
+            }
+        }
+    }
+
+    private double remainingSeconds(Order order) {
+        return order.getTemp().equals("room") ? order.getFreshness() : order.getFreshness() / 2.0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.css.challenge.util.TestUtils.createOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KitchenEventLoopTest {
+
+    @Test
+    public void testCommandsFromManyThreadsAreAppliedBySingleWriter() throws Exception {
+        List<Action> actions = new ArrayList<>();
+        int producers = 8;
+        int ordersPerProducer = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try (KitchenEventLoop loop = new KitchenEventLoop(new KitchenManager(actions), 64)) {
+            List<Future<Integer>> pickedUp = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                pickedUp.add(executor.submit(() -> {
+                    int count = 0;
+                    for (int i = 0; i < ordersPerProducer; i++) {
+                        String id = producer + "-" + i;
+                        String temp = i % 3 == 0 ? "hot" : i % 3 == 1 ? "cold" : "room";
+                        assertTrue(loop.placeOrder(createOrder(id, "Item", temp, 100)).join());
+                        if (i % 2 == 0 && loop.pickupOrder(id).join()) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }));
+            }
+            int pickups = 0;
+            for (Future<Integer> future : pickedUp) {
+                pickups += future.get();
+            }
+
+            // Close drains the ring, so the log is complete and stable afterwards
+            loop.close();
+            assertEquals(producers * ordersPerProducer, count(actions, ActionType.PLACE));
+            assertEquals(pickups, count(actions, ActionType.PICKUP));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPickupFutureReportsMiss() {
+        try (KitchenEventLoop loop = new KitchenEventLoop(new KitchenManager(new ArrayList<>()), 8)) {
+            CompletableFuture<Boolean> miss = loop.pickupOrder("unknown");
+            loop.placeOrder(createOrder("o1", "Pizza", "hot", 100));
+            CompletableFuture<Boolean> hit = loop.pickupOrder("o1");
+
+            assertFalse(miss.join());
+            assertTrue(hit.join());
+        }
+    }
+
+    @Test
+    public void testPlaceFutureReportsRejectedDuplicate() {
+        List<Action> actions = new ArrayList<>();
+        try (KitchenEventLoop loop = new KitchenEventLoop(new KitchenManager(actions), 8)) {
+            CompletableFuture<Boolean> first = loop.placeOrder(createOrder("o1", "Pizza", "hot", 100));
+            CompletableFuture<Boolean> second = loop.placeOrder(createOrder("o1", "Soup", "hot", 100));
+
+            assertTrue(first.join());
+            assertFalse(second.join());
+        }
+        assertEquals(1, actions.size());
+    }
+
+    @Test
+    public void testPublishAfterCloseIsRejected() {
+        KitchenEventLoop loop = new KitchenEventLoop(new KitchenManager(new ArrayList<>()), 2);
+        CompletableFuture<Boolean> placed = loop.placeOrder(createOrder("o1", "Pizza", "hot", 100));
+        loop.close();
+
+        assertTrue(placed.isDone());
+        assertThrows(IllegalStateException.class, () -> loop.placeOrder(createOrder("o2", "Pizza", "hot", 100)));
+        assertThrows(IllegalStateException.class, () -> loop.pickupOrder("o1"));
+        loop.close();
+    }
+
+    @Test
+    public void testBufferSizeMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new KitchenEventLoop(new KitchenManager(new ArrayList<>()), 10));
+    }
+
+    private static long count(List<Action> actions, ActionType type) {
+        return actions.stream().filter(a -> a.getAction() == type).count();
+    }
+}
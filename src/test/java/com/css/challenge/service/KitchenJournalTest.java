@@ -0,0 +1,263 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.Order;
+import com.css.challenge.metrics.KitchenMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.css.challenge.util.TestUtils.createOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KitchenJournalTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testRecoverRebuildsKitchenAndAuditTrail() throws IOException {
+        List<Action> before = new ArrayList<>();
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            KitchenManager kitchen = journaled(journal, before);
+            kitchen.placeOrder(createOrder("h1", "Soup", "hot", 100));
+            kitchen.placeOrder(createOrder("c1", "Salad", "cold", 100));
+            kitchen.placeOrder(createOrder("r1", "Bread", "room", 100));
+            assertTrue(kitchen.pickupOrder("c1"));
+        }
+
+        List<Action> after = new ArrayList<>();
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            KitchenManager kitchen = KitchenManager.recover(journal, ActionLog.of(after), clock, new KitchenMetrics());
+            assertEquals(trail(before), trail(after));
+            assertFalse(kitchen.pickupOrder("c1"));
+            assertTrue(kitchen.pickupOrder("h1"));
+            assertTrue(kitchen.pickupOrder("r1"));
+        }
+        assertEquals(6, after.size());
+    }
+
+    @Test
+    public void testRecoveredKitchenKeepsJournaling() throws IOException {
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            journaled(journal, new ArrayList<>()).placeOrder(createOrder("h1", "Soup", "hot", 100));
+        }
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            KitchenManager kitchen = KitchenManager.recover(journal, ActionLog.of(new ArrayList<>()), clock,
+                    new KitchenMetrics());
+            kitchen.placeOrder(createOrder("h2", "Stew", "hot", 100));
+        }
+
+        List<Action> after = new ArrayList<>();
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            KitchenManager kitchen = KitchenManager.recover(journal, ActionLog.of(after), clock, new KitchenMetrics());
+            assertEquals(2, after.size());
+            assertTrue(kitchen.pickupOrder("h1"));
+            assertTrue(kitchen.pickupOrder("h2"));
+        }
+    }
+
+    @Test
+    public void testPlaceRecordsFillingTheScratchBufferExactly() throws IOException {
+        // A place payload is 12 + id + 8 + name + temp bytes: 256, the scratch buffer's initial size, and just past it
+        List<Action> before = new ArrayList<>();
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            KitchenManager kitchen = journaled(journal, before);
+            kitchen.placeOrder(createOrder("h1", "s".repeat(231), "hot", 100));
+            kitchen.placeOrder(createOrder("h2", "s".repeat(232), "hot", 100));
+            kitchen.placeOrder(createOrder("h3", "s".repeat(233), "hot", 100));
+        }
+
+        List<Action> after = new ArrayList<>();
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            KitchenManager kitchen = KitchenManager.recover(journal, ActionLog.of(after), clock, new KitchenMetrics());
+            assertEquals(trail(before), trail(after));
+            assertTrue(kitchen.pickupOrder("h1"));
+            assertTrue(kitchen.pickupOrder("h2"));
+            assertTrue(kitchen.pickupOrder("h3"));
+        }
+        assertEquals(6, after.size());
+    }
+
+    @Test
+    public void testTornTailIsIgnored() throws IOException {
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            KitchenManager kitchen = journaled(journal, new ArrayList<>());
+            kitchen.placeOrder(createOrder("h1", "Soup", "hot", 100));
+            kitchen.placeOrder(createOrder("h2", "Stew", "hot", 100));
+        }
+        // Corrupt the payload of the last record, as if the crash happened mid-write
+        Path segment = dir.resolve(String.format("journal-%016d.log", 0));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 0);
+            int second = 8 + header.getInt(0);
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), second + 20);
+        }
+
+        List<Action> after = new ArrayList<>();
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            KitchenManager kitchen = KitchenManager.recover(journal, ActionLog.of(after), clock, new KitchenMetrics());
+            assertEquals(1, after.size());
+            assertFalse(kitchen.pickupOrder("h2"));
+            kitchen.placeOrder(createOrder("h3", "Chili", "hot", 100));
+        }
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            List<Action> reopened = new ArrayList<>();
+            journal.forEachAction(ActionLog.of(reopened)::append);
+            assertEquals(List.of("h1", "h3"), reopened.stream().map(Action::getId).toList());
+        }
+    }
+
+    @Test
+    public void testSnapshotAndTailMatchFullReplay() throws IOException {
+        Path snapshotted = dir.resolve("snapshotted");
+        Path full = dir.resolve("full");
+        for (Path target : List.of(snapshotted, full)) {
+            int snapshotEvery = target == snapshotted ? 5 : Integer.MAX_VALUE;
+            try (KitchenJournal journal = new KitchenJournal(target, 1 << 16, Duration.ofMillis(10), snapshotEvery,
+                    true)) {
+                fill(journaled(journal, new ArrayList<>()));
+            }
+        }
+        try (Stream<Path> files = Files.list(snapshotted)) {
+            assertTrue(files.anyMatch(file -> file.getFileName().toString().startsWith("snapshot-")));
+        }
+
+        List<Action> fromSnapshot = new ArrayList<>();
+        List<Action> fromJournal = new ArrayList<>();
+        try (KitchenJournal a = new KitchenJournal(snapshotted); KitchenJournal b = new KitchenJournal(full)) {
+            KitchenManager first = KitchenManager.recover(a, ActionLog.of(fromSnapshot), clock, new KitchenMetrics());
+            KitchenManager second = KitchenManager.recover(b, ActionLog.of(fromJournal), clock, new KitchenMetrics());
+            assertEquals(trail(fromJournal), trail(fromSnapshot));
+            for (int i = 0; i < 40; i++) {
+                String id = String.valueOf(i);
+                assertEquals(second.pickupOrder(id), first.pickupOrder(id), id);
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshotKeepsDiscardedOrdersDiscarded() throws IOException {
+        Path snapshotted = dir.resolve("snapshotted");
+        Path full = dir.resolve("full");
+        for (Path target : List.of(snapshotted, full)) {
+            int snapshotEvery = target == snapshotted ? 5 : Integer.MAX_VALUE;
+            try (KitchenJournal journal = new KitchenJournal(target, 1 << 16, Duration.ofMillis(10), snapshotEvery,
+                    true)) {
+                fill(journaled(journal, new ArrayList<>()));
+            }
+        }
+
+        KitchenMetrics fromSnapshot = new KitchenMetrics();
+        KitchenMetrics fromJournal = new KitchenMetrics();
+        try (KitchenJournal a = new KitchenJournal(snapshotted); KitchenJournal b = new KitchenJournal(full)) {
+            KitchenManager first = KitchenManager.recover(a, ActionLog.of(new ArrayList<>()), clock, fromSnapshot);
+            KitchenManager second = KitchenManager.recover(b, ActionLog.of(new ArrayList<>()), clock, fromJournal);
+            for (int i = 0; i < 40; i++) {
+                first.pickupOrder(String.valueOf(i));
+                second.pickupOrder(String.valueOf(i));
+            }
+        }
+        assertTrue(fromJournal.getDiscardedPickups() > 0);
+        assertEquals(fromJournal.getDiscardedPickups(), fromSnapshot.getDiscardedPickups());
+        assertEquals(fromJournal.getPickupMisses(), fromSnapshot.getPickupMisses());
+    }
+
+    @Test
+    public void testRecordsAlreadyInTheSnapshotAreNotAppliedTwice() throws IOException {
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            KitchenManager kitchen = journaled(journal, new ArrayList<>());
+            Order soup = createOrder("h1", "Soup", "hot", 100);
+            Order bread = createOrder("r1", "Bread", "room", 100);
+            kitchen.placeOrder(soup);
+            kitchen.placeOrder(createOrder("c1", "Salad", "cold", 100));
+            kitchen.placeOrder(bread);
+            assertTrue(kitchen.pickupOrder("c1"));
+            // As if the snapshot read the kitchen after all four actions but claimed the position before them
+            journal.writeSnapshot(0, List.of(
+                    new KitchenJournal.Entry(soup, KitchenManager.IN_HEATER, Long.MAX_VALUE),
+                    new KitchenJournal.Entry(bread, KitchenManager.IN_SHELF, Long.MAX_VALUE)), List.of());
+        }
+
+        KitchenMetrics metrics = new KitchenMetrics();
+        try (KitchenJournal journal = new KitchenJournal(dir)) {
+            KitchenManager kitchen = KitchenManager.recover(journal, ActionLog.of(new ArrayList<>()), clock, metrics);
+            assertEquals(Map.of("heater", 1, "cooler", 0, "shelf", 1), metrics.getOccupancy());
+            assertTrue(kitchen.pickupOrder("h1"));
+            assertFalse(kitchen.pickupOrder("h1"));
+            assertTrue(kitchen.pickupOrder("r1"));
+            assertFalse(kitchen.pickupOrder("c1"));
+        }
+    }
+
+    @Test
+    public void testRollsOverSegments() throws IOException {
+        List<Action> before = new ArrayList<>();
+        try (KitchenJournal journal = new KitchenJournal(dir, 256, Duration.ofMillis(10), Integer.MAX_VALUE, true)) {
+            fill(journaled(journal, before));
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.filter(file -> file.getFileName().toString().startsWith("journal-")).count() > 1);
+        }
+
+        List<Action> after = new ArrayList<>();
+        try (KitchenJournal journal = new KitchenJournal(dir, 256, Duration.ofMillis(10), Integer.MAX_VALUE, true)) {
+            KitchenManager.recover(journal, ActionLog.of(after), clock, new KitchenMetrics());
+        }
+        assertEquals(trail(before), trail(after));
+    }
+
+    private KitchenManager journaled(KitchenJournal journal, List<Action> actions) {
+        return new KitchenManager(ActionLog.of(actions), clock, KitchenManager.HEATER_CAPACITY,
+                KitchenManager.COOLER_CAPACITY, KitchenManager.SHELF_CAPACITY, new KitchenMetrics(), journal);
+    }
+
+    private static List<String> trail(List<Action> actions) {
+        return actions.stream().map(a -> a.getTimestamp() + " " + a.getId() + " " + a.getAction()).toList();
+    }
+
+    /*
+        Enough orders to fill every storage, move orders off the shelf and discard some, then pick half up.
+     */
+    private static void fill(KitchenManager kitchen) {
+        String[] temps = {"hot", "cold", "room"};
+        for (int i = 0; i < 40; i++) {
+            kitchen.placeOrder(createOrder(String.valueOf(i), "Dish " + i, temps[i % 3], 50 + i));
+            if (i % 4 == 0) {
+                kitchen.pickupOrder(String.valueOf(i / 2));
+            }
+        }
+    }
+}
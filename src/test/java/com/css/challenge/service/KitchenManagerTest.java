@@ -1,16 +1,28 @@
 package com.css.challenge.service;
 
 import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
 import com.css.challenge.client.ActionType;
+import com.css.challenge.client.ColumnarActionLog;
 import com.css.challenge.client.Order;
+import com.css.challenge.metrics.KitchenMetrics;
+import com.css.challenge.simulation.VirtualClock;
 import com.css.challenge.util.TestUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.css.challenge.client.ActionType.PICKUP;
 import static com.css.challenge.client.ActionType.PLACE;
@@ -216,9 +228,240 @@ class KitchenManagerTest {
         assertEquals(1, pickupCount);
     }
 
+    @Test
+    public void testSecondOrderWithTheSameIdIsNotPlaced() {
+        manager.placeOrder(createOrder("d1", "Soup", "hot", 100));
+        manager.placeOrder(createOrder("d1", "Ice Cream", "cold", 100));
+
+        assertEquals(1, actions.size());
+        assertTrue(manager.pickupOrder("d1"));
+        assertFalse(manager.pickupOrder("d1"));
+        manager.placeOrder(createOrder("d1", "Ice Cream", "cold", 100));
+        assertEquals(PLACE, actions.get(2).getAction());
+    }
+
     @Test
     public void testPickupWithInvalidIdDoesNothing() {
         manager.pickupOrder("nonexistent-id");
         assertEquals(0, actions.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPickupOfDiscardedOrderIsRejected() {
+        KitchenMetrics metrics = new KitchenMetrics();
+        manager = new KitchenManager(ActionLog.of(actions), Clock.systemUTC(), metrics);
+        for (int i = 0; i < 6; i++) {
+            manager.placeOrder(createOrder("hot" + i, "hot item " + i, "hot", 100));
+            manager.placeOrder(createOrder("cold" + i, "cold item " + i, "cold", 100));
+        }
+        for (int i = 0; i < 12; i++) {
+            manager.placeOrder(createOrder("s" + i, "ShelfItem" + i, "room", 100 - i));
+        }
+        manager.placeOrder(createOrder("newRoom", "OverflowItem", "room", 100));
+
+        assertFalse(manager.pickupOrder("s11"));
+        assertEquals(1, metrics.getDiscardedPickups());
+        assertEquals(0, metrics.getPickupMisses());
+        assertTrue(actions.stream().noneMatch(a -> a.getAction() == PICKUP));
+    }
+
+    @Test
+    public void testPickupOfMovedOrderFindsItInNewLocation() {
+        for (int i = 0; i < 6; i++) {
+            manager.placeOrder(createOrder("h" + i, "HeaterItem" + i, "hot", 100));
+            manager.placeOrder(createOrder("c" + i, "CoolerItem" + i, "cold", 100));
+        }
+        for (int i = 0; i < 12; i++) {
+            manager.placeOrder(createOrder("s" + i, "ShelfItem" + i, "cold", 100));
+        }
+        manager.pickupOrder("c0");
+        manager.placeOrder(createOrder("newHot", "soup", "hot", 100));
+
+        String movedId = actions.stream()
+                .filter(a -> a.getAction() == ActionType.MOVE)
+                .map(Action::getId)
+                .findFirst()
+                .orElseThrow();
+        assertTrue(manager.pickupOrder(movedId));
+        assertTrue(manager.pickupOrder("newHot"));
+    }
+
+    @Test
+    public void testReaperDiscardsExpiredOrdersInBoundedBatches() {
+        VirtualClock clock = new VirtualClock(Instant.EPOCH);
+        KitchenMetrics metrics = new KitchenMetrics();
+        manager = new KitchenManager(ActionLog.of(actions), clock, 1, 1, 4, metrics);
+        manager.placeOrder(createOrder("h1", "Soup", "hot", 5));     // heater, expires at 5s
+        manager.placeOrder(createOrder("h2", "Stew", "hot", 6));     // shelf at double decay, expires at 3s
+        manager.placeOrder(createOrder("r1", "Bread", "room", 4));   // shelf, expires at 4s
+        manager.placeOrder(createOrder("c1", "Salad", "cold", 100)); // cooler
+
+        assertEquals(0, manager.reapExpired(10));
+        clock.advanceTo(Instant.ofEpochMilli(4_500));
+        assertEquals(1, manager.reapExpired(1));
+        assertEquals(1, manager.reapExpired(10));
+        assertEquals(0, manager.reapExpired(10));
+        clock.advanceTo(Instant.ofEpochSecond(5));
+        assertEquals(1, manager.reapExpired(10));
+
+        assertEquals(List.of("h2", "r1", "h1"), actions.stream()
+                .filter(a -> a.getAction() == ActionType.DISCARD)
+                .map(Action::getId)
+                .toList());
+        assertFalse(manager.pickupOrder("h2"));
+        assertEquals(1, metrics.getDiscardedPickups());
+        assertTrue(manager.pickupOrder("c1"));
+    }
+
+    @Test
+    public void testBatchesMatchSequentialCalls() {
+        Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+        // r1 is discarded for r2; after the pickups h2 moves to the heater for r3, then r2 is discarded for r4
+        List<Order> first = List.of(createOrder("h1", "Soup", "hot", 100), createOrder("c1", "Salad", "cold", 100),
+                createOrder("h2", "Stew", "hot", 300), createOrder("r1", "Bread", "room", 100),
+                createOrder("r2", "Cake", "room", 200));
+        List<String> pickups = List.of("h1", "c1", "missing", "h1", "r1");
+        List<Order> second = List.of(createOrder("c2", "Ice", "cold", 100), createOrder("r3", "Pie", "room", 300),
+                createOrder("r4", "Tart", "room", 300));
+
+        List<Action> sequential = new ArrayList<>();
+        KitchenManager one = new KitchenManager(ActionLog.of(sequential), clock, 1, 1, 2);
+        first.forEach(one::placeOrder);
+        List<Boolean> picked = new ArrayList<>();
+        pickups.forEach(id -> picked.add(one.pickupOrder(id)));
+        second.forEach(one::placeOrder);
+
+        List<Action> batched = new ArrayList<>();
+        KitchenManager batch = new KitchenManager(ActionLog.of(batched), clock, 1, 1, 2);
+        batch.placeOrders(first);
+        boolean[] found = batch.pickupOrders(pickups);
+        batch.placeOrders(second);
+
+        assertEquals(List.of(true, true, false, false, false), picked);
+        assertEquals(List.of("r1", "r2"), sequential.stream()
+                .filter(a -> a.getAction() == ActionType.DISCARD).map(Action::getId).toList());
+        assertTrue(sequential.stream().anyMatch(a -> a.getAction() == ActionType.MOVE && a.getId().equals("h2")));
+        assertEquals(sequential.toString(), batched.toString());
+        for (int i = 0; i < pickups.size(); i++) {
+            assertEquals(picked.get(i), found[i], pickups.get(i));
+        }
+    }
+
+    @Test
+    public void testPickupRacingAMoveAlwaysFindsTheOrder() throws Exception {
+        ExecutorService courier = Executors.newSingleThreadExecutor();
+        try {
+            for (int round = 0; round < 5_000; round++) {
+                KitchenMetrics metrics = new KitchenMetrics();
+                ActionLog log = ActionLog.of(Collections.synchronizedList(new ArrayList<>()));
+                KitchenManager kitchen = new KitchenManager(log, Clock.systemUTC(), 1, 1, 1, metrics);
+                // h sits on the shelf with room in the heater, so placing r moves h while its courier arrives
+                kitchen.placeOrder(createOrder("x", "Soup", "hot", 100));
+                kitchen.placeOrder(createOrder("h", "Stew", "hot", 100));
+                assertTrue(kitchen.pickupOrder("x"));
+
+                // Stagger the courier by a varying spin so that, over the rounds, it lands inside the move
+                int spins = round % 400;
+                CountDownLatch go = new CountDownLatch(1);
+                Future<Boolean> pickup = courier.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < spins; i++) {
+                        Thread.onSpinWait();
+                    }
+                    return kitchen.pickupOrder("h");
+                });
+                Order r = createOrder("r", "Bread", "room", 100);
+                go.countDown();
+                kitchen.placeOrder(r);
+
+                assertTrue(pickup.get(), "round " + round);
+                assertFalse(kitchen.pickupOrder("h"), "round " + round);
+                assertTrue(kitchen.pickupOrder("r"), "round " + round);
+                // Only the second pickup of h misses
+                assertEquals(1, metrics.getPickupMisses(), "round " + round);
+            }
+        } finally {
+            courier.shutdown();
+        }
+    }
+
+    @Test
+    public void testReaperRacingAMoveNeverStrandsTheOrder() throws Exception {
+        ExecutorService reaper = Executors.newSingleThreadExecutor();
+        try {
+            for (int round = 0; round < 5_000; round++) {
+                VirtualClock clock = new VirtualClock(Instant.EPOCH);
+                KitchenMetrics metrics = new KitchenMetrics();
+                List<Action> log = Collections.synchronizedList(new ArrayList<>());
+                KitchenManager kitchen = new KitchenManager(ActionLog.of(log), clock, 1, 1, 1, metrics);
+                // h expires on the shelf with room in the heater, so placing r moves h while the reaper runs
+                kitchen.placeOrder(createOrder("x", "Soup", "hot", 100));
+                kitchen.placeOrder(createOrder("h", "Stew", "hot", 2));
+                assertTrue(kitchen.pickupOrder("x"));
+                clock.advanceTo(Instant.ofEpochSecond(10));
+
+                int spins = round % 400;
+                CountDownLatch go = new CountDownLatch(1);
+                Future<Integer> reaped = reaper.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < spins; i++) {
+                        Thread.onSpinWait();
+                    }
+                    return kitchen.reapExpired(10);
+                });
+                go.countDown();
+                kitchen.placeOrder(createOrder("r", "Bread", "room", 100));
+                reaped.get();
+                kitchen.reapExpired(10);
+
+                assertEquals(1, log.stream()
+                        .filter(a -> a.getId().equals("h") && a.getAction() == ActionType.DISCARD).count(),
+                        "round " + round + ": " + log);
+                assertEquals(0, (int) metrics.getOccupancy().get("heater"), "round " + round);
+                assertFalse(kitchen.pickupOrder("h"), "round " + round);
+                assertTrue(kitchen.pickupOrder("r"), "round " + round);
+            }
+        } finally {
+            reaper.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatchesAndConcurrentActionsAreLoggedInTimestampOrder() throws Exception {
+        ColumnarActionLog log = new ColumnarActionLog();
+        KitchenManager kitchen = new KitchenManager(log, Clock.systemUTC(), 16_000, 16_000, 16_000);
+        int batches = 2_000;
+        ExecutorService courier = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> pickups = courier.submit(() -> {
+                // Couriers for the first six orders of each batch wait for them, so their pickups land between
+                // later batches
+                for (int b = 0; b < batches; b++) {
+                    for (int i = 0; i < 6; i++) {
+                        while (!kitchen.pickupOrder(b + "-" + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }
+            });
+            for (int b = 0; b < batches; b++) {
+                List<Order> batch = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    batch.add(createOrder(b + "-" + i, "Dish", i % 2 == 0 ? "hot" : "cold", 100));
+                }
+                kitchen.placeOrders(batch);
+                kitchen.pickupOrders(List.of(b + "-6", b + "-7"));
+            }
+            pickups.get();
+        } finally {
+            courier.shutdown();
+        }
+
+        long[] previous = {Long.MIN_VALUE};
+        log.forEach((timestamp, id, action) -> {
+            assertTrue(timestamp >= previous[0], id + " " + action + " logged at " + timestamp + " after "
+                    + previous[0]);
+            previous[0] = timestamp;
+        });
+    }
+}
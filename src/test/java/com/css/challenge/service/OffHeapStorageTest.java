@@ -0,0 +1,126 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStorageTest {
+
+    private final Clock clock = Clock.fixed(Instant.ofEpochSecond(100), ZoneOffset.UTC);
+    private int handles;
+
+    private OffHeapStorage storage(int capacity) {
+        return new OffHeapStorage("Heater", (byte) 0, capacity, clock);
+    }
+
+    private Order order(String id, String temp, int freshness) {
+        return new Order(id, "Item " + id, temp, freshness, handles++);
+    }
+
+    @Test
+    public void testAddRemoveAndCapacity() {
+        OffHeapStorage storage = storage(2);
+        Order first = order("1", "hot", 10);
+        Order second = order("2", "cold", 20);
+        Order third = order("3", "room", 30);
+
+        assertTrue(storage.addOrder(first));
+        assertFalse(storage.addOrder(first), "Duplicates are rejected");
+        assertTrue(storage.addOrder(second));
+        assertTrue(storage.isFull());
+        assertFalse(storage.addOrder(third));
+
+        assertEquals(second, storage.getOrderById("2").orElseThrow());
+        assertTrue(storage.removeOrderById("2"));
+        assertFalse(storage.removeOrder(second));
+        assertFalse(storage.contains(second));
+        assertTrue(storage.addOrder(third), "The freed record is reused");
+        assertEquals(List.of("1", "3"), storage.getAllOrders().stream().map(Order::getId).sorted().toList());
+        assertEquals(100_000_000L, storage.placedAt(third));
+        assertEquals(-1, storage.placedAt(second));
+    }
+
+    @Test
+    public void testCursorReadsRecords() {
+        OffHeapStorage storage = storage(4);
+        Order hot = order("h", "hot", 10);
+        Order room = order("r", "room", 30);
+        storage.addOrder(hot);
+        storage.addOrder(room);
+
+        List<String> records = new ArrayList<>();
+        for (OffHeapStorage.Cursor cursor = storage.cursor(); cursor.next(); ) {
+            records.add(cursor.order().getId() + " " + cursor.temperature() + " " + cursor.freshness() + " "
+                    + cursor.placedAt() + " " + cursor.location());
+        }
+        assertEquals(List.of("h HOT 10 100000000 0", "r ROOM 30 100000000 0"), records);
+        assertEquals(hot.getHandle(), firstHandle(storage));
+    }
+
+    @Test
+    public void testOrdersWithoutHandlesAreKeptApart() {
+        OffHeapStorage storage = storage(4);
+        Order first = new Order("a", "Item a", "hot", 10);
+        Order second = new Order("b", "Item b", "cold", 20);
+
+        assertTrue(storage.addOrder(first));
+        assertTrue(storage.addOrder(second));
+        assertFalse(storage.addOrder(new Order("a", "Item a", "hot", 10)), "Duplicate ids are rejected");
+        assertEquals(2, storage.size());
+        assertEquals(first, storage.getOrderById("a").orElseThrow());
+        assertEquals(second, storage.getOrderById("b").orElseThrow());
+
+        assertTrue(storage.removeOrder(first));
+        assertFalse(storage.contains(first));
+        assertTrue(storage.contains(second));
+        assertEquals(List.of(second), storage.getAllOrders());
+    }
+
+    @Test
+    public void testChurnAtLargeCapacity() {
+        int capacity = 50_000;
+        OffHeapStorage storage = storage(capacity);
+        List<Order> resident = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            Order order = order("o" + i, i % 2 == 0 ? "hot" : "cold", 1 + i % 300);
+            assertTrue(storage.addOrder(order));
+            resident.add(order);
+        }
+        assertTrue(storage.isFull());
+
+        // Remove every other order and refill, so records and index slots are recycled out of order
+        for (int i = 0; i < capacity; i += 2) {
+            assertTrue(storage.removeOrder(resident.get(i)));
+        }
+        for (int i = 1; i < capacity; i += 2) {
+            assertTrue(storage.contains(resident.get(i)));
+        }
+        for (int i = 0; i < capacity / 2; i++) {
+            assertTrue(storage.addOrder(order("n" + i, "room", 5)));
+        }
+        assertTrue(storage.isFull());
+
+        int hot = 0;
+        int seen = 0;
+        for (OffHeapStorage.Cursor cursor = storage.cursor(); cursor.next(); ) {
+            seen++;
+            if (cursor.temperature() == Temperature.HOT) hot++;
+        }
+        assertEquals(capacity, seen);
+        assertEquals(0, hot);
+    }
+
+    private static int firstHandle(OffHeapStorage storage) {
+        OffHeapStorage.Cursor cursor = storage.cursor();
+        assertTrue(cursor.next());
+        return cursor.handle();
+    }
+}
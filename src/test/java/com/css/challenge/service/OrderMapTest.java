@@ -0,0 +1,87 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.css.challenge.util.TestUtils.createOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderMapTest {
+
+    @Test
+    public void testMatchesHashMapUnderRandomOperations() {
+        Random random = new Random(7);
+        OrderMap map = new OrderMap(4);
+        OrderSlots slots = new OrderSlots(4);
+        Map<String, Order> expected = new HashMap<>();
+        Order[] pool = new Order[512];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = createOrder("o" + i, "Item", "hot", 10);
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            Order order = pool[random.nextInt(pool.length)];
+            String id = order.getId();
+            if (random.nextInt(3) > 0) {
+                // Sometimes a second instance with the same id, so keys must match by id, not by reference
+                Order added = random.nextBoolean() ? order : createOrder(id, "Item", "hot", 10);
+                assertSame(expected.putIfAbsent(id, added), map.putIfAbsent(added));
+                slots.put(added, i);
+                assertEquals(i, slots.get(id));
+            } else {
+                assertSame(expected.remove(id), map.remove(id));
+                slots.remove(id);
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.size(), slots.size());
+        }
+        for (Order order : pool) {
+            assertEquals(expected.containsKey(order.getId()), map.get(order.getId()) != null);
+            assertEquals(expected.containsKey(order.getId()), slots.containsKey(order.getId()));
+        }
+        assertEquals(expected.size(), map.values().size());
+    }
+
+    @Test
+    public void testOrderIndexTracksLocations() {
+        OrderIndex index = new OrderIndex(2);
+        for (int i = 0; i < 100; i++) {
+            index.put(createOrder("o" + i, "Item", "cold", 10), (byte) (i % 3));
+        }
+        assertEquals(100, index.size());
+        assertEquals(2, index.locationOf("o41"));
+
+        index.put(index.get("o41"), (byte) 0);
+        assertEquals(0, index.locationOf("o41"));
+        assertEquals(100, index.size());
+
+        for (int i = 0; i < 100; i += 2) {
+            assertEquals("o" + i, index.remove("o" + i).getId());
+        }
+        assertNull(index.remove("o0"));
+        assertEquals(-1, index.locationOf("o0"));
+        for (int i = 1; i < 100; i += 2) {
+            assertEquals("o" + i, index.get("o" + i).getId());
+        }
+        assertEquals(50, index.size());
+    }
+
+    @Test
+    public void testOrderIndexAdmitsEachIdOnce() {
+        OrderIndex index = new OrderIndex(2);
+        assertTrue(index.admit(createOrder("a", "Item", "hot", 10)));
+        assertFalse(index.admit(createOrder("a", "Other", "cold", 20)));
+        assertEquals(OrderIndex.PENDING, index.locationOf("a"));
+        assertEquals("Item", index.get("a").getName());
+
+        index.put(index.get("a"), (byte) 1);
+        assertEquals(1, index.locationOf("a"));
+        assertFalse(index.admit(createOrder("a", "Item", "hot", 10)));
+        index.remove("a");
+        assertTrue(index.admit(createOrder("a", "Item", "hot", 10)));
+    }
+}
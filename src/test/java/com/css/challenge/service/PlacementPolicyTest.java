@@ -0,0 +1,114 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.Order;
+import com.css.challenge.simulation.ActionValidator;
+import com.css.challenge.simulation.DiscreteEventScheduler;
+import com.css.challenge.simulation.OrderGenerator;
+import com.css.challenge.simulation.ScheduledOrder;
+import com.css.challenge.simulation.Simulation;
+import com.css.challenge.simulation.VirtualClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.css.challenge.client.ActionType.DISCARD;
+import static com.css.challenge.client.ActionType.MOVE;
+import static com.css.challenge.util.TestUtils.createOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementPolicyTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    public void testFreshnessPolicyDiscardsStalest() {
+        List<Action> actions = new ArrayList<>();
+        KitchenManager kitchen = new KitchenManager(ActionLog.of(actions), clock, 0, 0, 2);
+        kitchen.placeOrder(createOrder("soon", "Bread", "room", 10), Duration.ofSeconds(1));
+        kitchen.placeOrder(createOrder("late", "Cake", "room", 100), Duration.ofSeconds(60));
+        kitchen.placeOrder(createOrder("new", "Pie", "room", 100), Duration.ofSeconds(5));
+
+        assertEquals("soon", discarded(actions));
+    }
+
+    @Test
+    public void testDeadlinePolicyDiscardsOrderNeededLast() {
+        List<Action> actions = new ArrayList<>();
+        KitchenManager kitchen = new KitchenManager(ActionLog.of(actions), clock, 0, 0, 2);
+        kitchen.setPolicy(new DeadlinePolicy());
+        kitchen.placeOrder(createOrder("soon", "Bread", "room", 10), Duration.ofSeconds(1));
+        kitchen.placeOrder(createOrder("late", "Cake", "room", 100), Duration.ofSeconds(60));
+        kitchen.placeOrder(createOrder("new", "Pie", "room", 100), Duration.ofSeconds(5));
+
+        assertEquals("late", discarded(actions));
+        assertTrue(kitchen.pickupOrder("soon"));
+    }
+
+    @Test
+    public void testDeadlinePolicyDiscardsDoomedOrderFirst() {
+        List<Action> actions = new ArrayList<>();
+        KitchenManager kitchen = new KitchenManager(ActionLog.of(actions), clock, 0, 0, 2);
+        kitchen.setPolicy(new DeadlinePolicy());
+        // Expires after 10s but is not picked up for 20s: worthless either way
+        kitchen.placeOrder(createOrder("doomed", "Bread", "room", 10), Duration.ofSeconds(20));
+        kitchen.placeOrder(createOrder("late", "Cake", "room", 100), Duration.ofSeconds(60));
+        kitchen.placeOrder(createOrder("new", "Pie", "room", 100), Duration.ofSeconds(5));
+
+        assertEquals("doomed", discarded(actions));
+    }
+
+    @Test
+    public void testDeadlinePolicyRescuesOrderThatWouldExpireOnShelf() {
+        List<Action> actions = new ArrayList<>();
+        KitchenManager kitchen = new KitchenManager(ActionLog.of(actions), clock, 1, 0, 2);
+        kitchen.setPolicy(new DeadlinePolicy());
+        kitchen.placeOrder(createOrder("h0", "Stew", "hot", 100), Duration.ofSeconds(1));
+        // On the shelf 30s of freshness lasts 15s; in the heater it lasts until the 20s pickup
+        kitchen.placeOrder(createOrder("rescue", "Soup", "hot", 30), Duration.ofSeconds(20));
+        // Stalest, but dead by its pickup wherever it is
+        kitchen.placeOrder(createOrder("lost", "Chili", "hot", 10), Duration.ofSeconds(60));
+        assertTrue(kitchen.pickupOrder("h0"));
+        kitchen.placeOrder(createOrder("new", "Bread", "room", 100), Duration.ofSeconds(5));
+
+        List<String> moved = actions.stream().filter(a -> a.getAction() == MOVE)
+                .map(Action::getId).toList();
+        assertEquals(List.of("rescue"), moved);
+        assertNull(discarded(actions));
+    }
+
+    @Test
+    public void testDeadlinePolicyNeedsFewerMovesAndDiscardsWhenOverloaded() throws InterruptedException {
+        List<Order> orders = new OrderGenerator(1).stream(2_000).map(ScheduledOrder::order).toList();
+
+        ActionValidator.Report freshness = run(orders, new FreshnessPolicy());
+        ActionValidator.Report deadline = run(orders, new DeadlinePolicy());
+
+        assertTrue(freshness.valid(), freshness.toString());
+        assertTrue(deadline.valid(), deadline.toString());
+        assertTrue(freshness.count(DISCARD) > 0, freshness.toString());
+        assertTrue(deadline.count(DISCARD) < freshness.count(DISCARD), deadline + " vs " + freshness);
+        assertTrue(deadline.count(MOVE) + deadline.count(DISCARD) < freshness.count(MOVE) + freshness.count(DISCARD),
+                deadline + " vs " + freshness);
+        assertTrue(deadline.score() > freshness.score(), deadline + " vs " + freshness);
+    }
+
+    private static ActionValidator.Report run(List<Order> orders, PlacementPolicy policy) throws InterruptedException {
+        ActionLog actions = new Simulation(Duration.ofMillis(250), Duration.ofSeconds(4), Duration.ofSeconds(8))
+                .seed(1)
+                .policy(policy)
+                .run(orders, new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH)));
+        return new ActionValidator(orders).validate(actions);
+    }
+
+    private static String discarded(List<Action> actions) {
+        return actions.stream().filter(a -> a.getAction() == DISCARD)
+                .map(Action::getId).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,93 @@
+package com.css.challenge.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.css.challenge.util.TestUtils.createOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedKitchenManagerTest {
+
+    @Test
+    public void testOrdersSpreadAcrossShards() {
+        ShardedKitchenManager kitchens = new ShardedKitchenManager(4, Clock.systemUTC());
+        Set<Integer> owners = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            owners.add(kitchens.ownerShard("order-" + i));
+            assertEquals(kitchens.ownerShard("order-" + i), kitchens.ownerShard("order-" + i));
+        }
+        assertEquals(4, owners.size());
+    }
+
+    @Test
+    public void testSaturatedOwnerFallsBackToNeighbourInsteadOfDiscarding() {
+        ShardedKitchenManager kitchens = new ShardedKitchenManager(2, Clock.systemUTC());
+
+        // 24 room orders only fit without discards if both shards' shelves are used (2 x 12)
+        for (int i = 0; i < 24; i++) {
+            kitchens.placeOrder(createOrder("r" + i, "Bread", "room", 100));
+        }
+        List<Action> actions = kitchens.aggregateActionLog().toList();
+        assertEquals(24, actions.size());
+        assertTrue(actions.stream().allMatch(a -> a.getAction() == ActionType.PLACE));
+        assertEquals(12, kitchens.shardActionLog(0).size());
+        assertEquals(12, kitchens.shardActionLog(1).size());
+
+        // Both kitchens are now full, so the next order forces a discard in its owner shard
+        kitchens.placeOrder(createOrder("overflow", "Bread", "room", 100));
+        List<Action> discards = kitchens.aggregateActionLog().toList().stream()
+                .filter(a -> a.getAction() == ActionType.DISCARD).toList();
+        assertEquals(1, discards.size());
+        // The discarded order is no longer routed to its shard
+        assertEquals(24, kitchens.routedOrders());
+        assertFalse(kitchens.pickupOrder(discards.get(0).getId()));
+        assertTrue(kitchens.pickupOrder("overflow"));
+    }
+
+    @Test
+    public void testPickupIsRoutedToShardHoldingTheOrder() {
+        ShardedKitchenManager kitchens = new ShardedKitchenManager(3, Clock.systemUTC());
+        for (int i = 0; i < 30; i++) {
+            kitchens.placeOrder(createOrder("h" + i, "Soup", "hot", 100));
+        }
+        for (int i = 0; i < 30; i++) {
+            assertTrue(kitchens.pickupOrder("h" + i), "h" + i);
+        }
+        assertFalse(kitchens.pickupOrder("h0"));
+
+        List<Action> actions = kitchens.aggregateActionLog().toList();
+        for (int i = 1; i < actions.size(); i++) {
+            assertTrue(actions.get(i - 1).getTimestamp() <= actions.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    public void testDuplicateIdIsRejectedEvenWhenItsOwnerIsSaturated() {
+        ShardedKitchenManager kitchens = new ShardedKitchenManager(2, Clock.systemUTC());
+        int owner = kitchens.ownerShard("dup");
+        assertTrue(kitchens.placeOrder(createOrder("dup", "Bread", "room", 100)));
+        // Fill the rest of the owner's shelf, so a duplicate would be offered to the neighbour shard
+        for (int i = 0, placed = 1; placed < 12; i++) {
+            if (kitchens.ownerShard("r" + i) == owner) {
+                assertTrue(kitchens.placeOrder(createOrder("r" + i, "Bread", "room", 100)));
+                placed++;
+            }
+        }
+
+        assertFalse(kitchens.placeOrder(createOrder("dup", "Cake", "room", 100)));
+        assertEquals(0, kitchens.shardActionLog(1 - owner).size());
+        assertEquals(12, kitchens.routedOrders());
+        assertTrue(kitchens.pickupOrder("dup"));
+        assertFalse(kitchens.pickupOrder("dup"));
+
+        // Once picked up, the id can be placed again
+        assertTrue(kitchens.placeOrder(createOrder("dup", "Cake", "room", 100)));
+        assertTrue(kitchens.pickupOrder("dup"));
+    }
+}
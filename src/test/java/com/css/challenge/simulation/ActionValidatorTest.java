@@ -0,0 +1,149 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.Client;
+import com.css.challenge.client.Order;
+import com.css.challenge.util.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.css.challenge.client.ActionType.DISCARD;
+import static com.css.challenge.client.ActionType.MOVE;
+import static com.css.challenge.client.ActionType.PICKUP;
+import static com.css.challenge.client.ActionType.PLACE;
+import static com.css.challenge.util.TestUtils.createOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionValidatorTest {
+
+    private static final long SECOND = 1_000_000L;
+
+    private final Duration rate = Duration.ofMillis(500);
+    private final Duration min = Duration.ofSeconds(4);
+    private final Duration max = Duration.ofSeconds(8);
+
+    @Test
+    public void testSimulatedRunIsValidInMemoryAndFromFile() throws IOException, InterruptedException {
+        List<Order> orders = TestUtils.loadProblemFromJson("/largeOrders.json");
+        ActionLog actions = new Simulation(rate, min, max).seed(7)
+                .run(orders, new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH)));
+
+        ActionValidator.Report report = new ActionValidator(orders).pickupWindow(min, max).validate(actions);
+        assertEquals(0, report.violations().stream()
+                .filter(v -> !v.reason().equals("picked up expired")).count(), report.toString());
+        assertEquals(orders.size(), report.count(PLACE));
+        assertEquals(0, report.unfinished());
+        assertTrue(report.score() > 0 && report.score() < 1, report.toString());
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        Client.writeSolution(file, rate, min, max, actions);
+        ActionValidator.Report fromFile = new ActionValidator(orders).pickupWindow(min, max)
+                .validate(new ByteArrayInputStream(file.toByteArray()));
+        assertEquals(report.toString(), fromFile.toString());
+    }
+
+    @Test
+    public void testScoresFreshnessWithShelfDecay() {
+        Order room = createOrder("r", "Bread", "room", 10);
+        Order hot = createOrder("h", "Soup", "hot", 10);
+        ActionValidator validator = new ActionValidator(List.of(room, hot), 0, 0, 2);
+
+        // Room temperature decays at the normal rate on the shelf, hot twice as fast
+        ActionValidator.Report report = validator.validate(log(
+                new Action(0, "r", PLACE),
+                new Action(0, "h", PLACE),
+                new Action(2 * SECOND, "r", PICKUP),
+                new Action(2 * SECOND, "h", PICKUP)));
+
+        assertTrue(report.valid(), report.toString());
+        assertEquals((0.8 + 0.6) / 2, report.score(), 1e-9);
+    }
+
+    @Test
+    public void testMovedOrderDecaysAtShelfRateOnlyWhileOnTheShelf() {
+        Order hot = createOrder("h", "Soup", "hot", 10);
+        Order other = createOrder("o", "Stew", "hot", 100);
+        ActionValidator validator = new ActionValidator(List.of(hot, other), 1, 0, 1);
+
+        ActionValidator.Report report = validator.validate(log(
+                new Action(0, "o", PLACE),
+                new Action(0, "h", PLACE),
+                new Action(SECOND, "o", PICKUP),
+                new Action(SECOND, "h", MOVE),
+                new Action(3 * SECOND, "h", PICKUP)));
+
+        assertTrue(report.valid(), report.toString());
+        // h used 2s of freshness on the shelf and 2s in the heater
+        assertEquals((0.6 + 0.99) / 2, report.score(), 1e-9);
+    }
+
+    @Test
+    public void testReportsViolations() {
+        List<Order> orders = List.of(
+                createOrder("1", "Soup", "hot", 100),
+                createOrder("2", "Stew", "hot", 100),
+                createOrder("3", "Chili", "hot", 100),
+                createOrder("4", "Curry", "hot", 1));
+        ActionValidator validator = new ActionValidator(orders, 1, 1, 1).pickupWindow(min, max);
+
+        ActionValidator.Report report = validator.validate(log(
+                new Action(0, "3", PICKUP),
+                new Action(0, "1", PLACE),
+                new Action(0, "1", PLACE),
+                new Action(0, "2", PLACE),
+                new Action(0, "3", PLACE),
+                new Action(SECOND, "2", DISCARD),
+                new Action(SECOND, "2", PICKUP),
+                new Action(SECOND, "9", PLACE),
+                new Action(0, "4", PLACE),
+                new Action(5 * SECOND, "4", PICKUP),
+                new Action(9 * SECOND, "1", PICKUP)));
+
+        assertEquals(List.of(
+                "picked up before placement",
+                "already heater",
+                "no room, shelf is full",
+                "discarded",
+                "unknown order",
+                "out of order, previous action at 1000000",
+                "no room, shelf is full",
+                "picked up expired",
+                "picked up 9000000us after placement"),
+                report.violations().stream().map(ActionValidator.Violation::reason).toList());
+        assertFalse(report.valid());
+        assertEquals(1, report.expiredPickups());
+        assertEquals(1, report.unfinished());
+    }
+
+    @Test
+    public void testValidatesALargeLog() {
+        OrderGenerator generator = new OrderGenerator(3);
+        List<Order> orders = generator.stream(250_000).map(ScheduledOrder::order).toList();
+        // Each order is picked up as soon as it is placed, so capacity is never exceeded
+        List<Action> actions = new ArrayList<>(orders.size() * 2);
+        for (int i = 0; i < orders.size(); i++) {
+            actions.add(new Action(i * 10L, orders.get(i).getId(), PLACE));
+            actions.add(new Action(i * 10L, orders.get(i).getId(), PICKUP));
+        }
+
+        // How fast this goes is measured by SimulationBenchmark.validate
+        ActionValidator.Report report = new ActionValidator(orders).validate(ActionLog.of(actions));
+
+        assertTrue(report.valid(), report.toString());
+        assertEquals(1.0, report.score(), 1e-9);
+        assertEquals(orders.size(), report.count(PLACE));
+        assertEquals(orders.size(), report.count(PICKUP));
+    }
+
+    private static ActionLog log(Action... actions) {
+        return ActionLog.of(List.of(actions));
+    }
+}
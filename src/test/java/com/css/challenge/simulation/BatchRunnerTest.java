@@ -0,0 +1,89 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Problem;
+import com.css.challenge.metrics.KitchenMetrics;
+import com.css.challenge.util.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+
+    @Test
+    public void testVirtualRunsAreIsolatedAndAggregated() throws IOException, InterruptedException {
+        List<Problem> problems = problems(50);
+        Simulation simulation = new Simulation(Duration.ofMillis(500), Duration.ofSeconds(4), Duration.ofSeconds(8));
+
+        BatchRunner.Report report = new BatchRunner(simulation, ClockMode.VIRTUAL).run(problems);
+
+        assertEquals(50, report.outcomes().size());
+        assertEquals(0, report.failures());
+        for (int i = 0; i < problems.size(); i++) {
+            BatchRunner.Outcome outcome = report.outcomes().get(i);
+            assertEquals("p" + i, outcome.testId());
+            assertEquals(48, outcome.count(ActionType.PLACE), "Each run has its own kitchen");
+            assertEquals(48, outcome.count(ActionType.PICKUP) + outcome.count(ActionType.DISCARD));
+        }
+        assertEquals(50 * 48, report.total(ActionType.PLACE));
+        assertTrue(report.throughput() > 0);
+    }
+
+    @Test
+    public void testRealTimeRunsShareOneScheduler() throws IOException, InterruptedException {
+        List<Problem> problems = problems(8);
+        KitchenMetrics metrics = new KitchenMetrics();
+        Simulation simulation = new Simulation(Duration.ofMillis(2), Duration.ofMillis(5), Duration.ofMillis(10))
+                .metrics(metrics);
+
+        BatchRunner.Report report = new BatchRunner(simulation, ClockMode.REAL).run(problems);
+
+        assertEquals(0, report.failures());
+        for (BatchRunner.Outcome outcome : report.outcomes()) {
+            assertEquals(48, outcome.count(ActionType.PLACE), "Each run has its own kitchen");
+            assertEquals(48, outcome.count(ActionType.PICKUP) + outcome.count(ActionType.DISCARD));
+        }
+        assertEquals(8 * 48, metrics.getPlaced());
+        assertTrue(metrics.getOccupancy().isEmpty(), "Each run unregisters its gauges: " + metrics.getOccupancy());
+    }
+
+    @Test
+    public void testScopedSchedulerRunsItsEventsOneAtATime() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger ran = new AtomicInteger();
+
+        try (EventScheduler shared = ExecutorEventScheduler.virtualThreads(Clock.systemUTC());
+             EventScheduler scoped = new ScopedEventScheduler(shared)) {
+            for (int i = 0; i < 200; i++) {
+                scoped.schedule(Duration.ZERO, () -> {
+                    if (running.incrementAndGet() > 1) overlaps.incrementAndGet();
+                    Thread.onSpinWait();
+                    running.decrementAndGet();
+                    ran.incrementAndGet();
+                });
+            }
+            scoped.drain();
+        }
+
+        assertEquals(200, ran.get());
+        assertEquals(0, overlaps.get());
+    }
+
+    private static List<Problem> problems(int count) throws IOException {
+        List<Problem> problems = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Order> orders = TestUtils.loadProblemFromJson("/largeOrders.json");
+            problems.add(new Problem("p" + i, orders));
+        }
+        return problems;
+    }
+}
@@ -0,0 +1,99 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Order;
+import com.css.challenge.util.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderGeneratorTest {
+
+    @Test
+    public void testSameSeedGivesSameStream() {
+        List<String> first = describe(new OrderGenerator(7).arrivals(OrderGenerator.Arrival.POISSON, Duration.ofMillis(10)));
+        List<String> second = describe(new OrderGenerator(7).arrivals(OrderGenerator.Arrival.POISSON, Duration.ofMillis(10)));
+        List<String> other = describe(new OrderGenerator(8).arrivals(OrderGenerator.Arrival.POISSON, Duration.ofMillis(10)));
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    public void testTemperatureMixAndFreshness() {
+        long[] counts = new long[3];
+        new OrderGenerator(1)
+                .temperatures(2, 1, 1)
+                .freshness(Distribution.uniform(10, 20))
+                .stream(40_000)
+                .forEach(scheduled -> {
+                    Order order = scheduled.order();
+                    counts[order.getTemperature().ordinal()]++;
+                    assertTrue(order.getFreshness() >= 10 && order.getFreshness() <= 20);
+                });
+
+        assertEquals(0.5, counts[0] / 40_000.0, 0.02);
+        assertEquals(0.25, counts[1] / 40_000.0, 0.02);
+        assertEquals(0.25, counts[2] / 40_000.0, 0.02);
+    }
+
+    @Test
+    public void testArrivalProcesses() {
+        Duration rate = Duration.ofMillis(100);
+        List<ScheduledOrder> constant = new OrderGenerator(1).arrivals(OrderGenerator.Arrival.CONSTANT, rate).stream(100).toList();
+        assertEquals(rate.multipliedBy(99), constant.get(99).arrival());
+
+        List<ScheduledOrder> poisson = new OrderGenerator(1).arrivals(OrderGenerator.Arrival.POISSON, rate).stream(50_000).toList();
+        double meanGapMillis = poisson.get(poisson.size() - 1).arrival().toNanos() / 1e6 / (poisson.size() - 1);
+        assertEquals(100, meanGapMillis, 3);
+
+        List<ScheduledOrder> bursty = new OrderGenerator(1)
+                .arrivals(OrderGenerator.Arrival.BURSTY, rate)
+                .burstSize(5)
+                .stream(50)
+                .toList();
+        for (int i = 0; i < bursty.size(); i++) {
+            assertEquals(bursty.get(i - i % 5).arrival(), bursty.get(i).arrival(), "Orders of a burst arrive together");
+        }
+    }
+
+    @Test
+    public void testStreamedRunPlacesEveryOrder() throws InterruptedException {
+        int count = 200_000;
+        ActionLog actions = new Simulation(Duration.ofMillis(1), Duration.ofSeconds(4), Duration.ofSeconds(8))
+                .run(new OrderGenerator(3).arrivals(OrderGenerator.Arrival.BURSTY, Duration.ofMillis(1)).stream(count),
+                        new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH)));
+
+        long[] totals = new long[ActionType.values().length];
+        actions.forEach((timestamp, id, action) -> totals[action.ordinal()]++);
+        assertEquals(count, totals[ActionType.PLACE.ordinal()]);
+        assertEquals(count, totals[ActionType.PICKUP.ordinal()] + totals[ActionType.DISCARD.ordinal()]);
+    }
+
+    @Test
+    public void testSeededSimulationIsReproducible() throws IOException, InterruptedException {
+        Simulation simulation = new Simulation(Duration.ofMillis(500), Duration.ofSeconds(4), Duration.ofSeconds(8)).seed(42);
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+
+        List<Action> first = simulation.run(TestUtils.loadProblemFromJson("/largeOrders.json"),
+                new DiscreteEventScheduler(new VirtualClock(start))).toList();
+        List<Action> second = simulation.run(TestUtils.loadProblemFromJson("/largeOrders.json"),
+                new DiscreteEventScheduler(new VirtualClock(start))).toList();
+
+        assertEquals(first.toString(), second.toString());
+    }
+
+    private static List<String> describe(OrderGenerator generator) {
+        return generator.stream(1_000)
+                .map(s -> s.order() + "@" + s.arrival() + "+" + s.pickupDelay())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,172 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Order;
+import com.css.challenge.metrics.KitchenMetrics;
+import com.css.challenge.service.AdmissionQueue;
+import com.css.challenge.util.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.css.challenge.client.ActionType.PICKUP;
+import static com.css.challenge.client.ActionType.PLACE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationTest {
+
+    private final Duration rate = Duration.ofMillis(500);
+    private final Duration min = Duration.ofSeconds(4);
+    private final Duration max = Duration.ofSeconds(8);
+
+    @Test
+    public void testVirtualClockRunsEventsInTimestampOrder() {
+        VirtualClock clock = new VirtualClock(Instant.EPOCH);
+        DiscreteEventScheduler scheduler = new DiscreteEventScheduler(clock);
+        List<String> fired = new ArrayList<>();
+
+        scheduler.schedule(Duration.ofSeconds(2), () -> fired.add("b@" + clock.millis()));
+        scheduler.schedule(Duration.ofSeconds(1), () -> {
+            fired.add("a@" + clock.millis());
+            scheduler.schedule(Duration.ofSeconds(5), () -> fired.add("d@" + clock.millis()));
+        });
+        scheduler.schedule(Duration.ofSeconds(2), () -> fired.add("c@" + clock.millis()));
+        scheduler.drain();
+
+        assertEquals(List.of("a@1000", "b@2000", "c@2000", "d@6000"), fired);
+    }
+
+    @Test
+    public void testVirtualClockInAnotherZoneFollowsVirtualTime() {
+        VirtualClock clock = new VirtualClock(Instant.EPOCH);
+        Clock tokyo = clock.withZone(ZoneId.of("Asia/Tokyo"));
+        clock.advanceTo(Instant.EPOCH.plusSeconds(60));
+
+        assertEquals(ZoneId.of("Asia/Tokyo"), tokyo.getZone());
+        assertEquals(clock.instant(), tokyo.instant());
+        assertEquals(ZonedDateTime.parse("1970-01-01T09:01+09:00[Asia/Tokyo]"), ZonedDateTime.now(tokyo));
+        assertSame(clock, tokyo.withZone(ZoneOffset.UTC));
+    }
+
+    @Test
+    public void testVirtualRunProducesRealTimeTimestamps() throws IOException, InterruptedException {
+        List<Order> orders = TestUtils.loadProblemFromJson("/largeOrders.json");
+        VirtualClock clock = new VirtualClock(Instant.parse("2024-01-01T00:00:00Z"));
+        long start = ChronoUnit.MICROS.between(Instant.EPOCH, clock.instant());
+
+        // How long a virtual run takes is measured by SimulationBenchmark.virtualRun
+        List<Action> actions = new Simulation(rate, min, max).run(orders, new DiscreteEventScheduler(clock)).toList();
+
+        Map<String, Long> placedAt = new HashMap<>();
+        long previous = start;
+        for (Action action : actions) {
+            assertTrue(action.getTimestamp() >= previous, "Actions must be logged in timestamp order");
+            previous = action.getTimestamp();
+
+            if (action.getAction() == PLACE) {
+                placedAt.put(action.getId(), action.getTimestamp());
+            } else if (action.getAction() == PICKUP) {
+                long waited = action.getTimestamp() - placedAt.get(action.getId());
+                assertTrue(waited >= min.toNanos() / 1000 && waited < max.toNanos() / 1000);
+            }
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            assertEquals(start + rate.multipliedBy(i).toNanos() / 1000, (long) placedAt.get(orders.get(i).getId()));
+        }
+    }
+
+    @Test
+    public void testVirtualSingleWriterRunMatchesDirectRun() throws IOException, InterruptedException {
+        List<Order> orders = TestUtils.loadProblemFromJson("/largeOrders.json");
+        Simulation simulation = new Simulation(Duration.ofMillis(100), min, max)
+                .seed(5)
+                .reaper(Duration.ofSeconds(1), 4);
+
+        List<Action> direct = simulation.run(orders, new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH)))
+                .toList();
+        List<Action> looped = simulation.singleWriter(true)
+                .run(orders, new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH))).toList();
+
+        assertEquals(direct.toString(), looped.toString());
+    }
+
+    @Test
+    public void testRunFromAFeedMatchesRunFromTheList() throws IOException, InterruptedException {
+        List<Order> orders = TestUtils.loadProblemFromJson("/largeOrders.json");
+        Simulation simulation = new Simulation(rate, min, max).seed(3);
+        OrderFeed feed = new OrderFeed();
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try (feed) {
+                for (Order order : orders) {
+                    feed.accept(order);
+                    Thread.sleep(1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        List<Action> fed = simulation.run(feed, new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH))).toList();
+        producer.join();
+        List<Action> listed = simulation.run(orders, new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH)))
+                .toList();
+
+        assertEquals(listed.toString(), fed.toString());
+        assertFalse(feed.hasNext());
+    }
+
+    @Test
+    public void testReaperLeavesNoExpiredOrdersForPickup() throws IOException, InterruptedException {
+        List<Order> orders = TestUtils.loadProblemFromJson("/largeOrders.json");
+        Duration longMin = Duration.ofSeconds(60);
+        Duration longMax = Duration.ofSeconds(90);
+
+        ActionValidator.Report without = new ActionValidator(orders).validate(new Simulation(rate, longMin, longMax)
+                .seed(7)
+                .run(orders, new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH))));
+        ActionValidator.Report with = new ActionValidator(orders).validate(new Simulation(rate, longMin, longMax)
+                .seed(7)
+                .reaper(Duration.ofMillis(1), 8)
+                .run(orders, new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH))));
+
+        assertTrue(without.expiredPickups() > 0, without.toString());
+        assertEquals(0, with.expiredPickups(), with.toString());
+        assertTrue(with.valid(), with.toString());
+        assertTrue(with.count(ActionType.DISCARD) > without.count(ActionType.DISCARD));
+    }
+
+    @Test
+    public void testAdmissionQueueFeedsEveryOrderToTheKitchen() throws InterruptedException {
+        List<Order> orders = new OrderGenerator(3).stream(2_000).map(ScheduledOrder::order).toList();
+        KitchenMetrics metrics = new KitchenMetrics();
+
+        ActionLog actions = new Simulation(rate, min, max)
+                .seed(3)
+                .metrics(metrics)
+                .admission(4, AdmissionQueue.Overflow.BLOCK, 16)
+                .run(orders, new DiscreteEventScheduler(new VirtualClock(Instant.EPOCH)));
+        // Every action carries the virtual time of the event that issued it, so pickups keep to their window
+        ActionValidator.Report report = new ActionValidator(orders).pickupWindow(min, max).validate(actions);
+
+        assertEquals(0, report.violations().stream()
+                .filter(v -> !v.reason().equals("picked up expired")).count(), report.toString());
+        assertEquals(orders.size(), report.count(PLACE));
+        assertEquals(0, report.unfinished());
+        assertEquals(orders.size(), metrics.admissionWait().count());
+        assertEquals(0, metrics.getShed());
+        assertEquals(0, (int) metrics.getQueueDepth().get("admission"));
+    }
+}
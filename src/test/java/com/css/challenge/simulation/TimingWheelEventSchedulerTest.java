@@ -0,0 +1,72 @@
+package com.css.challenge.simulation;
+
+import com.css.challenge.client.ActionLog;
+import com.css.challenge.client.ActionType;
+import com.css.challenge.client.Order;
+import com.css.challenge.util.TestUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelEventSchedulerTest {
+
+    @Test
+    public void testEventsOnEveryLevelFireAfterTheirDelay() throws InterruptedException {
+        // 1us ticks put delays of up to 300ms on all four wheel levels
+        Random random = new Random(3);
+        AtomicInteger early = new AtomicInteger();
+        AtomicInteger fired = new AtomicInteger();
+        try (TimingWheelEventScheduler scheduler = new TimingWheelEventScheduler(Duration.ofNanos(1_000), Clock.systemUTC())) {
+            for (int i = 0; i < 20_000; i++) {
+                long delayNanos = random.nextInt(300_000) * 1_000L;
+                long due = System.nanoTime() + delayNanos;
+                scheduler.schedule(Duration.ofNanos(delayNanos), () -> {
+                    if (System.nanoTime() < due) early.incrementAndGet();
+                    fired.incrementAndGet();
+                });
+            }
+            scheduler.drain();
+        }
+        assertEquals(20_000, fired.get());
+        assertEquals(0, early.get());
+    }
+
+    @Test
+    public void testEventsScheduledByEventsAndBatchedOnWorkers() throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        AtomicLong sum = new AtomicLong();
+        try (TimingWheelEventScheduler scheduler = new TimingWheelEventScheduler(Duration.ofMillis(1), Clock.systemUTC(), workers)) {
+            for (int i = 0; i < 1_000; i++) {
+                int value = i;
+                scheduler.schedule(Duration.ofMillis(i % 20), () ->
+                        scheduler.schedule(Duration.ofMillis(5), () -> sum.addAndGet(value)));
+            }
+            scheduler.drain();
+        }
+        workers.shutdown();
+        assertEquals(999 * 1_000 / 2, sum.get());
+    }
+
+    @Test
+    public void testDrivesASimulation() throws IOException, InterruptedException {
+        List<Order> orders = TestUtils.loadProblemFromJson("/largeOrders.json");
+        ActionLog actions;
+        try (TimingWheelEventScheduler scheduler = new TimingWheelEventScheduler(Duration.ofMillis(1), Clock.systemUTC())) {
+            actions = new Simulation(Duration.ofMillis(2), Duration.ofMillis(5), Duration.ofMillis(10)).run(orders, scheduler);
+        }
+        long[] counts = new long[ActionType.values().length];
+        actions.forEach((timestamp, id, action) -> counts[action.ordinal()]++);
+        assertEquals(48, counts[ActionType.PLACE.ordinal()]);
+        assertEquals(48, counts[ActionType.PICKUP.ordinal()] + counts[ActionType.DISCARD.ordinal()]);
+    }
+}